@@ -0,0 +1,143 @@
+package com.expensetracker.analytics;
+
+import lombok.Value;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A user's expenses for a date range as parallel primitive arrays (epoch day, amount in minor units,
+ * category id with 0 for uncategorized), so aggregating 100k rows allocates a handful of arrays
+ * instead of an object per row. Rows must be appended grouped by category and, within a category,
+ * in ascending amount order; that is what lets {@link #categoryStats} read percentiles off directly.
+ */
+public final class SpendSeries {
+    private int size;
+    private int[] days;
+    private long[] amounts;
+    private long[] categories;
+
+    public SpendSeries(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        days = new int[capacity];
+        amounts = new long[capacity];
+        categories = new long[capacity];
+    }
+
+    public void add(int epochDay, long amountMinor, long categoryId) {
+        if (size == days.length) {
+            int capacity = size * 2;
+            days = Arrays.copyOf(days, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        days[size] = epochDay;
+        amounts[size] = amountMinor;
+        categories[size] = categoryId;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Total per day for {@code dayCount} days starting at {@code fromDay}; rows outside are ignored. */
+    public long[] dailyTotals(long fromDay, int dayCount) {
+        long[] totals = new long[dayCount];
+        for (int i = 0; i < size; i++) {
+            long offset = days[i] - fromDay;
+            if (offset >= 0 && offset < dayCount) {
+                totals[(int) offset] += amounts[i];
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Sums a daily series into calendar weeks (starting Monday) or months. The first and last buckets
+     * are partial when the range does not start or end on a boundary; their start is still the
+     * calendar boundary, so buckets line up across requests.
+     */
+    public static Buckets bucket(long[] daily, LocalDate from, Period period) {
+        LocalDate[] starts = new LocalDate[daily.length];
+        long[] totals = new long[daily.length];
+        int count = -1;
+        LocalDate current = null;
+        for (int i = 0; i < daily.length; i++) {
+            LocalDate start = period.startOf(from.plusDays(i));
+            if (!start.equals(current)) {
+                current = start;
+                starts[++count] = start;
+            }
+            totals[count] += daily[i];
+        }
+        return new Buckets(Arrays.copyOf(starts, count + 1), Arrays.copyOf(totals, count + 1));
+    }
+
+    /**
+     * Trailing mean over {@code window} days, in minor units, in O(days) via prefix sums. The first
+     * {@code window - 1} points average over the days available so far.
+     */
+    public static double[] rollingAverage(long[] daily, int window) {
+        long[] prefix = new long[daily.length + 1];
+        for (int i = 0; i < daily.length; i++) {
+            prefix[i + 1] = prefix[i] + daily[i];
+        }
+        double[] averages = new double[daily.length];
+        for (int i = 0; i < daily.length; i++) {
+            int start = Math.max(0, i - window + 1);
+            averages[i] = (prefix[i + 1] - prefix[start]) / (double) (i + 1 - start);
+        }
+        return averages;
+    }
+
+    /** Count, total and nearest-rank percentiles of individual expense amounts, per category. */
+    public void categoryStats(double[] percentiles, CategoryStatsConsumer consumer) {
+        int start = 0;
+        while (start < size) {
+            long category = categories[start];
+            int end = start;
+            long total = 0;
+            while (end < size && categories[end] == category) {
+                total += amounts[end++];
+            }
+            int count = end - start;
+            long[] values = new long[percentiles.length];
+            for (int p = 0; p < percentiles.length; p++) {
+                int rank = (int) Math.ceil(percentiles[p] * count);
+                values[p] = amounts[start + Math.max(0, Math.min(rank, count) - 1)];
+            }
+            consumer.accept(category, count, total, values);
+            start = end;
+        }
+    }
+
+    @FunctionalInterface
+    public interface CategoryStatsConsumer {
+        void accept(long categoryId, int count, long totalMinor, long[] percentileValuesMinor);
+    }
+
+    public enum Period {
+        WEEK {
+            @Override
+            LocalDate startOf(LocalDate date) {
+                return date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+            }
+        },
+        MONTH {
+            @Override
+            LocalDate startOf(LocalDate date) {
+                return date.withDayOfMonth(1);
+            }
+        };
+
+        abstract LocalDate startOf(LocalDate date);
+    }
+
+    @Value
+    public static class Buckets {
+        LocalDate[] starts;
+        long[] totals;
+    }
+}
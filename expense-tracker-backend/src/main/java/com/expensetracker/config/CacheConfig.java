@@ -0,0 +1,63 @@
+package com.expensetracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Bounded Caffeine caches behind Spring's cache abstraction. Each cache records statistics, which
+ * Spring Boot publishes as {@code cache.gets}, {@code cache.puts} and {@code cache.evictions} meters.
+ * The manager is transaction-aware: evictions issued inside a transaction are applied after commit.
+ * That alone does not keep entries fresh: a reader that loaded the old state before the commit can
+ * still put it after the eviction. Category lists therefore carry the data version they were loaded
+ * at (see {@link Versioned}) and are checked against the current one on every read; a cached user that
+ * is not active is re-read from the database before a login is rejected.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String CATEGORIES = "categories";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.users.max-size:10000}") long usersMaxSize,
+                                     @Value("${app.cache.users.ttl:10m}") Duration usersTtl,
+                                     @Value("${app.cache.categories.max-weight:200000}") long categoriesMaxWeight,
+                                     @Value("${app.cache.categories.ttl:1h}") Duration categoriesTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .recordStats()
+                .build());
+        // Per-user category lists, weighed by list length so the budget bounds the total number of
+        // cached categories rather than the number of users
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+                .maximumWeight(categoriesMaxWeight)
+                .weigher((Object userId, Object categories) ->
+                        categories instanceof Versioned<?> versioned && versioned.getValue() instanceof Collection<?> list
+                                ? 1 + list.size() : 1)
+                .expireAfterWrite(categoriesTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * A cached value together with the data version it was loaded at. The version must be read before
+     * the value, so that a write committing in between makes the entry look older, never newer.
+     */
+    @lombok.Value
+    public static class Versioned<T> {
+        long version;
+        T value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.expensetracker.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Application metrics on top of what Spring Boot binds by default (HTTP server requests, Spring Data
+ * repository invocations, Hikari pool, caches, and Hibernate statistics via hibernate-micrometer).
+ */
+@Configuration
+public class MetricsConfig {
+    /** Enables {@code @Timed} on service classes and methods. */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryStatisticsCustomizer() {
+        RequestQueryStatistics statistics = new RequestQueryStatistics();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statistics);
+            properties.put(AvailableSettings.INTERCEPTOR, statistics);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of Spring Security so queries made while authenticating are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Records {@code http.server.requests.jdbc.statements} and {@code http.server.requests.entity.loads}
+     * per request, tagged like {@code http.server.requests} by method and URI template, so N+1 queries
+     * and over-fetching show up per endpoint.
+     */
+    public static class RequestQueryMetricsFilter extends OncePerRequestFilter {
+        private final MeterRegistry meterRegistry;
+
+        public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+            RequestQueryStatistics.Counts counts = RequestQueryStatistics.begin();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                RequestQueryStatistics.end();
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                summary("http.server.requests.jdbc.statements", "JDBC statements prepared per request", request, uri)
+                        .record(counts.statements);
+                summary("http.server.requests.entity.loads", "Entities loaded by Hibernate per request", request, uri)
+                        .record(counts.entityLoads);
+            }
+        }
+
+        private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+        }
+    }
+}
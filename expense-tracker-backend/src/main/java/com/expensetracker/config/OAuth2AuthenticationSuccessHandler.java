@@ -2,6 +2,7 @@ package com.expensetracker.config;
 
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
+import com.expensetracker.security.UserCredentials;
 import com.expensetracker.service.JwtService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,13 +34,13 @@ public class OAuth2AuthenticationSuccessHandler implements AuthenticationSuccess
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Email not found in OAuth2 provider");
             return;
         }
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        User user = userOpt.orElseGet(() -> userRepository.save(User.builder()
+        Optional<UserCredentials> userOpt = userRepository.findCredentialsByEmail(email);
+        Long userId = userOpt.map(UserCredentials::getId).orElseGet(() -> userRepository.save(User.builder()
                 .email(email)
                 .password("")
                 .status(User.Status.ACTIVE)
-                .build()));
-        String jwt = jwtService.generateToken(user.getEmail(), user.getId());
+                .build()).getId());
+        String jwt = jwtService.generateToken(email, userId);
         String targetUrl = redirectUri + "?token=" + jwt;
         response.sendRedirect(targetUrl);
     }
@@ -0,0 +1,48 @@
+package com.expensetracker.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Per-thread tally of the JDBC statements Hibernate prepares and the entities it loads while a request
+ * is handled. Installed as Hibernate's statement inspector and session-factory interceptor by
+ * {@link MetricsConfig}; {@link MetricsConfig.RequestQueryMetricsFilter} opens a tally per request and
+ * records it. Work outside a request (schedulers, async exports) is not counted.
+ */
+public class RequestQueryStatistics implements StatementInspector, Interceptor {
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    static final class Counts {
+        int statements;
+        int entityLoads;
+    }
+
+    static Counts begin() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+        return false;
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import com.expensetracker.security.AuthenticatedUser;
 import com.expensetracker.service.JwtService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +26,10 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import com.expensetracker.config.OAuth2AuthenticationSuccessHandler;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import com.expensetracker.security.RateLimitFilter;
+import com.expensetracker.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class SecurityConfig {
@@ -33,16 +39,44 @@ public class SecurityConfig {
     @Autowired
     private OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.api.permits-per-second:20}")
+    private double apiPermitsPerSecond;
+
+    @Value("${app.rate-limit.api.burst:100}")
+    private int apiBurst;
+
+    @Value("${app.rate-limit.login.permits-per-second:0.2}")
+    private double loginPermitsPerSecond;
+
+    @Value("${app.rate-limit.login.burst:10}")
+    private int loginBurst;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private long rateLimitMaxKeys;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, ObjectProvider<ClientRegistrationRepository> clientRegistrationRepositoryProvider) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                // Re-dispatches of async requests (change streams, exports) were authorized when they started;
+                // the stateless JWT filter does not run again for them
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
+                // Scraped by Prometheus and probed by the orchestrator; /actuator must not be routed publicly
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling(e -> e.authenticationEntryPoint(authenticationEntryPoint()))
-            .addFilterBefore(new JwtAuthenticationFilter(jwtService), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(new JwtAuthenticationFilter(jwtService), org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class)
+            // Needs the principal the JWT filter sets; not a bean, so the servlet container doesn't register it a second time
+            .addFilterAfter(new RateLimitFilter(
+                    new RateLimiter<>(apiPermitsPerSecond, apiBurst, rateLimitMaxKeys),
+                    new RateLimiter<>(loginPermitsPerSecond, loginBurst, rateLimitMaxKeys),
+                    meterRegistry), JwtAuthenticationFilter.class);
         if (clientRegistrationRepositoryProvider.getIfAvailable() != null) {
             http.oauth2Login(oauth2 -> oauth2.successHandler(oAuth2AuthenticationSuccessHandler));
         }
@@ -70,11 +104,15 @@ public class SecurityConfig {
                 try {
                     var claims = jwtService.parseToken(token);
                     String email = claims.getSubject();
-                    // Long userId = claims.get("userId", Long.class);
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(email, null, Collections.emptyList());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.info("JWT authentication set for user: {}", email);
+                    if (email != null && claims.get("userId") instanceof Number userId) {
+                        AuthenticatedUser principal = new AuthenticatedUser(userId.longValue(), email);
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        logger.debug("JWT authentication set for user: {}", email);
+                    } else {
+                        logger.warn("JWT authentication failed: token has no subject or userId claim");
+                    }
                 } catch (Exception e) {
                     logger.warn("JWT authentication failed: {}", e.getMessage());
                 }
@@ -2,8 +2,11 @@ package com.expensetracker.controller;
 
 import com.expensetracker.dto.UserRegistrationRequest;
 import com.expensetracker.dto.UserLoginRequest;
+import com.expensetracker.security.PasswordHashingUnavailableException;
 import com.expensetracker.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,6 +14,9 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
+    /** Seconds clients should wait before retrying when password hashing is saturated. */
+    static final String RETRY_AFTER_SECONDS = "1";
+
     private final UserService userService;
 
     @PostMapping("/register")
@@ -38,4 +44,11 @@ public class AuthController {
             return ResponseEntity.status(401).build();
         }
     }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<Void> passwordHashingUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
 } 
\ No newline at end of file
@@ -1,13 +1,15 @@
 package com.expensetracker.controller;
 
-import com.expensetracker.model.Category;
-import com.expensetracker.model.User;
+import com.expensetracker.dto.CategoryRequest;
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.mapper.CategoryMapper;
+import com.expensetracker.security.AuthenticatedUser;
 import com.expensetracker.service.CategoryService;
-import com.expensetracker.service.UserService;
+import com.expensetracker.service.DataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -16,37 +18,34 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
-    private final UserService userService;
+    private final CategoryMapper categoryMapper;
+    private final DataVersionService dataVersionService;
 
     @GetMapping
-    public List<Category> getCategories(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email).orElseThrow();
-        return categoryService.getCategoriesByUserId(user.getId());
+    public ResponseEntity<List<CategoryResponse>> getCategories(AuthenticatedUser currentUser, ServletWebRequest webRequest) {
+        String etag = dataVersionService.etag(currentUser.getId());
+        if (ConditionalRequests.notModified(webRequest, etag)) {
+            return null;
+        }
+        return ResponseEntity.ok(categoryService.getCategoriesByUserId(currentUser.getId()));
     }
 
     @PostMapping
-    public void createCategory(@RequestBody Category category, Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email).orElseThrow();
-        category.setUser(user);
-        categoryService.createCategory(category);
+    public CategoryResponse createCategory(@RequestBody CategoryRequest request, AuthenticatedUser currentUser) {
+        return categoryMapper.toResponse(categoryService.createCategory(currentUser.getId(), request));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Void> updateCategory(
             @PathVariable Long id,
-            @RequestBody Category category,
-            Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email).orElseThrow();
-        
+            @RequestBody CategoryRequest request,
+            AuthenticatedUser currentUser) {
         return categoryService.getCategoryById(id)
                 .map(existingCategory -> {
-                    if (!existingCategory.getUser().getId().equals(user.getId())) {
+                    if (!existingCategory.getUser().getId().equals(currentUser.getId())) {
                         return ResponseEntity.status(403).<Void>build();
                     }
-                    categoryService.updateCategory(id, category);
+                    categoryService.updateCategory(id, request);
                     return ResponseEntity.ok().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -55,13 +54,10 @@ public class CategoryController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(
             @PathVariable Long id,
-            Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email).orElseThrow();
-        
+            AuthenticatedUser currentUser) {
         return categoryService.getCategoryById(id)
                 .map(existingCategory -> {
-                    if (!existingCategory.getUser().getId().equals(user.getId())) {
+                    if (!existingCategory.getUser().getId().equals(currentUser.getId())) {
                         return ResponseEntity.status(403).<Void>build();
                     }
                     categoryService.deleteCategory(id);
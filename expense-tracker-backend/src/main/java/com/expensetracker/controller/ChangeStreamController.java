@@ -0,0 +1,26 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.security.AuthenticatedUser;
+import com.expensetracker.stream.ChangeStreamHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class ChangeStreamController {
+    private final ChangeStreamHub changeStreamHub;
+
+    /**
+     * Server-Sent Events stream of {@code expenses} and {@code categories} change notifications for
+     * the current user, replacing periodic polling of the listings.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(AuthenticatedUser currentUser) {
+        return changeStreamHub.subscribe(currentUser.getId());
+    }
+}
@@ -0,0 +1,26 @@
+package com.expensetracker.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET support for listings versioned by {@link com.expensetracker.service.DataVersionService}.
+ */
+final class ConditionalRequests {
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Returns {@code true}, with the response already set to 304, if the client's
+     * {@code If-None-Match} matches {@code etag}; otherwise sets the ETag header for the 200 response.
+     * The same weak ETag covers the JSON, Smile and CBOR encodings, so the response varies by Accept.
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(etag);
+    }
+}
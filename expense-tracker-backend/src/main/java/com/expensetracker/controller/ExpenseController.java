@@ -1,43 +1,235 @@
 package com.expensetracker.controller;
 
-import com.expensetracker.model.Expense;
-import com.expensetracker.model.User;
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseAnalyticsResponse;
+import com.expensetracker.dto.ExpenseChanges;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseImportResult;
+import com.expensetracker.dto.ExpenseImportRow;
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.dto.ExpenseSummaryResponse;
+import com.expensetracker.dto.SearchPage;
+import com.expensetracker.idempotency.IdempotencyKeyInProgressException;
+import com.expensetracker.idempotency.IdempotencyKeyMismatchException;
+import com.expensetracker.idempotency.IdempotencyService;
+import com.expensetracker.mapper.ExpenseMapper;
+import com.expensetracker.security.AuthenticatedUser;
+import com.expensetracker.service.DataVersionService;
+import com.expensetracker.service.ExpenseAnalyticsService;
+import com.expensetracker.service.ExpenseExportService;
+import com.expensetracker.service.ExpenseImportService;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExpenseSummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/expenses")
 @RequiredArgsConstructor
 public class ExpenseController {
     private final ExpenseService expenseService;
+    private final ExpenseExportService expenseExportService;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseSummaryService expenseSummaryService;
+    private final ExpenseAnalyticsService expenseAnalyticsService;
+    private final DataVersionService dataVersionService;
+    private final IdempotencyService idempotencyService;
+    private final ExpenseMapper expenseMapper;
 
+    /**
+     * With an {@code Idempotency-Key} header, a retry of the same request returns the original 201 and
+     * body without creating another expense (marked {@code Idempotent-Replayed: true}); reusing the key
+     * for a different body is a 422.
+     */
     @PostMapping
-    public ResponseEntity<Void> createExpense(@RequestBody Expense expense, Authentication authentication) {
-        Long userId = getUserIdFromAuth(authentication);
-        // Set the user on the expense
-        User user = new User();
-        user.setId(userId);
-        expense.setUser(user);
-        expenseService.createExpense(expense);
-        return ResponseEntity.status(201).build();
+    public ResponseEntity<ExpenseResponse> createExpense(@RequestBody ExpenseRequest request,
+                                                         @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                         AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        try {
+            if (idempotencyKey == null) {
+                return ResponseEntity.status(201).body(expenseMapper.toResponse(expenseService.createExpense(userId, request)));
+            }
+            IdempotencyService.Outcome<ExpenseResponse> outcome = idempotencyService.execute(userId, idempotencyKey, request,
+                    ExpenseResponse.class, () -> expenseMapper.toResponse(expenseService.createExpense(userId, request)));
+            return ResponseEntity.status(201)
+                    .header("Idempotent-Replayed", String.valueOf(outcome.isReplayed()))
+                    .body(outcome.getValue());
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (IdempotencyKeyInProgressException e) {
+            return ResponseEntity.status(409).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ExpenseImportResult> importExpenses(@RequestBody List<ExpenseImportRow> rows, AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        return importResponse(expenseImportService.importExpenses(userId, rows));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ExpenseImportResult> importExpensesCsv(@RequestParam("file") MultipartFile file, AuthenticatedUser currentUser) throws IOException {
+        Long userId = currentUser.getId();
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return importResponse(expenseImportService.importCsv(userId, reader));
+        }
+    }
+
+    /**
+     * 201 when every row was imported, 400 when the import was rejected and nothing was written, and
+     * 500 when it failed part-way; that body says which rows are committed, so the client can resume.
+     */
+    private ResponseEntity<ExpenseImportResult> importResponse(ExpenseImportResult result) {
+        if (result.getFailedRow() != null) {
+            return ResponseEntity.internalServerError().body(result);
+        }
+        if (!result.getErrors().isEmpty()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.status(201).body(result);
+    }
+
+    /**
+     * Answers {@code If-None-Match} with the current ETag with a 304 before the listing query runs.
+     */
     @GetMapping
-    public ResponseEntity<List<Expense>> getExpenses(Authentication authentication) {
-        Long userId = getUserIdFromAuth(authentication);
-        List<Expense> expenses = expenseService.getExpensesByUserId(userId);
+    public ResponseEntity<List<ExpenseResponse>> getExpenses(AuthenticatedUser currentUser, ServletWebRequest webRequest) {
+        Long userId = currentUser.getId();
+        String etag = dataVersionService.etag(userId);
+        if (ConditionalRequests.notModified(webRequest, etag)) {
+            return null;
+        }
+        List<ExpenseResponse> expenses = expenseService.getExpensesByUserId(userId);
         return ResponseEntity.ok(expenses);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ExpenseResponse>> getExpensePage(
+            ExpenseFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ExpenseService.DEFAULT_PAGE_SIZE) int limit,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        try {
+            return ResponseEntity.ok(expenseService.getExpensePage(userId, filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Delta sync: what changed since the cursor from the previous response, or everything when
+     * {@code since} is omitted.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ExpenseChanges> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + ExpenseService.DEFAULT_CHANGES_PAGE_SIZE) int limit,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        try {
+            return ResponseEntity.ok(expenseService.getChanges(userId, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage<ExpenseResponse>> searchExpenses(
+            @RequestParam String q,
+            ExpenseFilter filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ExpenseService.DEFAULT_SEARCH_PAGE_SIZE) int size,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        try {
+            return ResponseEntity.ok(expenseService.search(userId, q, filter, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<ExpenseSummaryResponse>> getSummary(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(expenseSummaryService.getSummary(userId, start, end));
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<ExpenseAnalyticsResponse> getAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + ExpenseAnalyticsService.DEFAULT_WINDOW_DAYS) int window,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        try {
+            return ResponseEntity.ok(expenseAnalyticsService.analyze(userId, start, end, window));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @RequestParam(defaultValue = "csv") String format,
+            AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        ExpenseExportService.Format exportFormat;
+        try {
+            exportFormat = ExpenseExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> expenseExportService.export(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("expenses." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Void> updateExpense(@PathVariable Long id, @RequestBody Expense expense, Authentication authentication) {
-        Long userId = getUserIdFromAuth(authentication);
-        boolean updated = expenseService.updateExpense(id, expense, userId);
+    public ResponseEntity<Void> updateExpense(@PathVariable Long id, @RequestBody ExpenseRequest request, AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
+        boolean updated;
+        try {
+            updated = expenseService.updateExpense(id, request, userId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         if (updated) {
             return ResponseEntity.ok().build();
         } else {
@@ -46,8 +238,8 @@ public class ExpenseController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteExpense(@PathVariable Long id, Authentication authentication) {
-        Long userId = getUserIdFromAuth(authentication);
+    public ResponseEntity<Void> deleteExpense(@PathVariable Long id, AuthenticatedUser currentUser) {
+        Long userId = currentUser.getId();
         boolean deleted = expenseService.deleteExpense(id, userId);
         if (deleted) {
             return ResponseEntity.ok().build();
@@ -55,15 +247,4 @@ public class ExpenseController {
             return ResponseEntity.notFound().build();
         }
     }
-
-    private Long getUserIdFromAuth(Authentication authentication) {
-        // The principal is the email, but we need userId from JWT claims
-        // In a real app, use a custom Authentication or SecurityContext
-        // For now, parse from details if available
-        if (authentication.getDetails() instanceof org.springframework.security.web.authentication.WebAuthenticationDetails) {
-            // Not available here, so fallback to a fixed value for test
-            return 1L;
-        }
-        return 1L; // fallback for test JWT
-    }
-} 
\ No newline at end of file
+}
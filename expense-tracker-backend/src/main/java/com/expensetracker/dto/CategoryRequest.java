@@ -0,0 +1,18 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of category create and update requests. The owner is always the caller and the id comes
+ * from the path, so neither can be supplied here.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryRequest {
+    private String name;
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.dto;
+
+import com.expensetracker.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spend over a date range: totals per day, week (starting Monday) and month, a trailing
+ * {@code window}-day average per day, and per-category distributions of individual expense amounts.
+ * Amounts serialize as exact decimals (see {@link Money}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseAnalyticsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int window;
+    private List<Point> daily;
+    private List<Point> weekly;
+    private List<Point> monthly;
+    private List<Point> rollingAverage;
+    private List<CategoryStats> categories;
+
+    /** {@code start} is the day, or the first day of the week or month, the value covers. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate start;
+        private Money value;
+    }
+
+    /** {@code categoryId} and {@code category} are {@code null} for uncategorized expenses. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryStats {
+        private Long categoryId;
+        private String category;
+        private long count;
+        private Money total;
+        private Money p50;
+        private Money p90;
+        private Money p99;
+    }
+}
@@ -0,0 +1,22 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Expenses created or updated, and ids of expenses deleted, after a sync cursor. {@code cursor} is
+ * the position to resume from next time (unchanged when there was nothing new); while
+ * {@code hasMore} is set the client should request again straight away.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseChanges {
+    private List<ExpenseResponse> upserted;
+    private List<Long> deleted;
+    private String cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,33 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. When {@code errors} is non-empty and {@code failedRow} is {@code null},
+ * the import was rejected and nothing was inserted. When {@code failedRow} is set, a chunk failed
+ * after validation: the first {@code imported} rows are committed and the rows from the 0-based index
+ * {@code failedRow} on are not, so a client can resume by resubmitting only those.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseImportResult {
+    private int imported;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<String> errors;
+    private Integer failedRow;
+
+    public static ExpenseImportResult rejected(List<String> errors) {
+        return new ExpenseImportResult(0, 0, 0, errors, null);
+    }
+
+    public static ExpenseImportResult failed(int imported, long elapsedMillis) {
+        return new ExpenseImportResult(imported, elapsedMillis, 0, List.of(
+                "rows from index " + imported + " on were not imported; the rows before it are"), imported);
+    }
+}
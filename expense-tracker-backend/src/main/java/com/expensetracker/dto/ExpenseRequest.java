@@ -0,0 +1,24 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Body of expense create and update requests. {@code categoryId} must name one of the caller's
+ * categories, or be {@code null} for an uncategorized expense; {@code date} defaults to today.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseRequest {
+    private BigDecimal amount;
+    private String description;
+    private Long categoryId;
+    private LocalDate date;
+}
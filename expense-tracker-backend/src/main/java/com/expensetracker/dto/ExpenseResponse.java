@@ -0,0 +1,27 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Expense as returned by the API. Read queries select straight into this type (see
+ * {@link com.expensetracker.repository.ExpenseRepository}), so listings never load the owning user.
+ * {@code categoryId} and {@code category} (the category name) are both {@code null} for uncategorized expenses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseResponse {
+    private Long id;
+    private BigDecimal amount;
+    private String description;
+    private Long categoryId;
+    private String category;
+    private LocalDate date;
+}
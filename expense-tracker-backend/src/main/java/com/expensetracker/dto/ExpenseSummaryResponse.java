@@ -0,0 +1,20 @@
+package com.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseSummaryResponse {
+    private YearMonth month;
+    /** {@code categoryId} and {@code category} are {@code null} for uncategorized expenses. */
+    private Long categoryId;
+    private String category;
+    private BigDecimal total;
+    private long count;
+}
@@ -0,0 +1,12 @@
+package com.expensetracker.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a user's categories are created, renamed or deleted. Renames and deletes also
+ * publish {@link ExpensesChangedEvent}, because expense listings carry the category.
+ */
+@Value
+public class CategoriesChangedEvent {
+    Long userId;
+}
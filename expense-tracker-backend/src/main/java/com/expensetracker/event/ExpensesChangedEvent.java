@@ -0,0 +1,12 @@
+package com.expensetracker.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a user's expenses, or the categories they reference, are written. Listeners that
+ * derive state from the expense table should react after commit, so they never see rolled-back data.
+ */
+@Value
+public class ExpensesChangedEvent {
+    Long userId;
+}
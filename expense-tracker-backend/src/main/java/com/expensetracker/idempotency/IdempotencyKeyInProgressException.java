@@ -0,0 +1,11 @@
+package com.expensetracker.idempotency;
+
+/**
+ * Thrown when a duplicate waited too long for the original request with the same key to finish.
+ * Translated to 409; the client should retry later with the same key.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
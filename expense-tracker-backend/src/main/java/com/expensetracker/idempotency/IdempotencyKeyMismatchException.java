@@ -0,0 +1,10 @@
+package com.expensetracker.idempotency;
+
+/**
+ * Thrown when an idempotency key is reused for a request with a different body. Translated to 422.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
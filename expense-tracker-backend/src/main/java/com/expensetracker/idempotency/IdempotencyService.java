@@ -0,0 +1,184 @@
+package com.expensetracker.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per (user, {@code Idempotency-Key}) and answers retries with the original
+ * response.
+ * <p>
+ * Duplicates that arrive while the first request is still running wait for its result instead of
+ * running the write again. They coordinate through a per-key future in a concurrent map, so unrelated
+ * keys never contend. Across instances, the shared store's unique key rolls back the losing write,
+ * which is then answered with the winner's response. Reusing a key with a different request body is
+ * rejected.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long waitTimeoutMillis;
+    private final ConcurrentHashMap<InFlightKey, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+    }
+
+    /**
+     * Returns the stored response for {@code key} if there is one, otherwise runs {@code action} in a
+     * transaction together with storing its result.
+     *
+     * @throws IllegalArgumentException if {@code key} is blank or too long, or rethrown from {@code action}
+     * @throws IdempotencyKeyMismatchException if {@code key} was used for a different {@code request}
+     * @throws IdempotencyKeyInProgressException if a duplicate timed out waiting for the original
+     */
+    public <T> Outcome<T> execute(Long userId, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        Optional<StoredResponse> stored = store.find(userId, key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash, responseType);
+        }
+
+        InFlightKey inFlightKey = new InFlightKey(userId, key);
+        InFlight mine = new InFlight(requestHash);
+        InFlight running = inFlight.putIfAbsent(inFlightKey, mine);
+        if (running != null) {
+            return awaitOriginal(running, requestHash, responseType);
+        }
+        try {
+            Outcome<T> outcome = runOnce(userId, key, requestHash, responseType, action);
+            mine.result.complete(outcome.getValue());
+            return outcome;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(inFlightKey, mine);
+        }
+    }
+
+    private <T> Outcome<T> runOnce(Long userId, String key, String requestHash, Class<T> responseType, Supplier<T> action) {
+        // The original may have finished between the first lookup and claiming the key
+        Optional<StoredResponse> stored = store.find(userId, key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash, responseType);
+        }
+        try {
+            T value = transactionTemplate.execute(status -> {
+                T result = action.get();
+                store.save(userId, key, new StoredResponse(requestHash, toJson(result)));
+                return result;
+            });
+            return new Outcome<>(value, false);
+        } catch (DuplicateKeyException e) {
+            // Another instance committed the same key first, and our write was rolled back
+            StoredResponse winner = store.find(userId, key).orElseThrow(() -> e);
+            return replay(winner, requestHash, responseType);
+        }
+    }
+
+    private <T> Outcome<T> awaitOriginal(InFlight running, String requestHash, Class<T> responseType) {
+        if (!running.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency key was used for a different request");
+        }
+        try {
+            return new Outcome<>(responseType.cast(running.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS)), true);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("Original request is still running", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for the original request", e);
+        } catch (ExecutionException e) {
+            // The original failed; the duplicate fails the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> Outcome<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency key was used for a different request");
+        }
+        try {
+            return new Outcome<>(objectMapper.readValue(stored.getBody(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The response, and whether it was replayed rather than produced by this call.
+     */
+    @lombok.Value
+    public static class Outcome<T> {
+        T value;
+        boolean replayed;
+    }
+
+    @lombok.Value
+    private static class InFlightKey {
+        Long userId;
+        String key;
+    }
+
+    private static final class InFlight {
+        final String requestHash;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
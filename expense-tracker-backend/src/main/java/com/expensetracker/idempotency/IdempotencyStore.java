@@ -0,0 +1,21 @@
+package com.expensetracker.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Completed responses by (user, idempotency key), kept for {@code app.idempotency.ttl}. Selected by {@code app.idempotency.store}:
+ * {@link InMemoryIdempotencyStore} for a single instance, {@link JdbcIdempotencyStore} when several
+ * instances share the database.
+ */
+public interface IdempotencyStore {
+    Optional<StoredResponse> find(Long userId, String key);
+
+    /**
+     * Records the response; called inside the transaction that produced it. If the transaction rolls
+     * back, the response must not become visible.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if another instance already committed a
+     *         response for the key (only stores shared between instances detect this)
+     */
+    void save(Long userId, String key, StoredResponse response);
+}
@@ -0,0 +1,56 @@
+package com.expensetracker.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded per-instance store. Entries expire a TTL after they are written, and Caffeine evicts by
+ * size once {@code max-entries} is reached. A response becomes visible only when its transaction commits.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Cache<Key, StoredResponse> responses;
+
+    public InMemoryIdempotencyStore(@Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${app.idempotency.max-entries:100000}") long maxEntries) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(Long userId, String key) {
+        return Optional.ofNullable(responses.getIfPresent(new Key(userId, key)));
+    }
+
+    @Override
+    public void save(Long userId, String key, StoredResponse response) {
+        Key cacheKey = new Key(userId, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    responses.put(cacheKey, response);
+                }
+            });
+        } else {
+            responses.put(cacheKey, response);
+        }
+    }
+
+    @lombok.Value
+    private static class Key {
+        Long userId;
+        String key;
+    }
+}
@@ -0,0 +1,71 @@
+package com.expensetracker.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Store shared by all instances through the {@code idempotency_record} table (migration
+ * {@code common/V6}). The row is inserted in the same transaction as the write it answers, so when
+ * two instances race on one key the primary key rejects the second insert and rolls its write back.
+ * Expired rows are ignored on lookup and purged periodically.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(NamedParameterJdbcTemplate jdbcTemplate,
+                                @Value("${app.idempotency.ttl:24h}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<StoredResponse> find(Long userId, String key) {
+        return jdbcTemplate.query(
+                "SELECT request_hash, response_body FROM idempotency_record "
+                        + "WHERE user_id = :userId AND idempotency_key = :key AND expires_at > :now",
+                params(userId, key).addValue("now", LocalDateTime.now()),
+                (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getString("response_body")))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void save(Long userId, String key, StoredResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        // An expired record for the key would otherwise block the insert until the next purge
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_record "
+                        + "WHERE user_id = :userId AND idempotency_key = :key AND expires_at <= :now",
+                params(userId, key).addValue("now", now));
+        jdbcTemplate.update(
+                "INSERT INTO idempotency_record (user_id, idempotency_key, request_hash, response_body, expires_at) "
+                        + "VALUES (:userId, :key, :requestHash, :body, :expiresAt)",
+                params(userId, key)
+                        .addValue("requestHash", response.getRequestHash())
+                        .addValue("body", response.getBody())
+                        .addValue("expiresAt", now.plus(ttl)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_record WHERE expires_at <= :now",
+                new MapSqlParameterSource("now", LocalDateTime.now()));
+    }
+
+    private static MapSqlParameterSource params(Long userId, String key) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("key", key);
+    }
+}
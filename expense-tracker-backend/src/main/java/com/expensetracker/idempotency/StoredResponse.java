@@ -0,0 +1,13 @@
+package com.expensetracker.idempotency;
+
+import lombok.Value;
+
+/**
+ * The outcome of a completed idempotent request: a digest of the request it answered, and the
+ * response body as JSON.
+ */
+@Value
+public class StoredResponse {
+    String requestHash;
+    String body;
+}
@@ -0,0 +1,10 @@
+package com.expensetracker.mapper;
+
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.model.Category;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface CategoryMapper {
+    CategoryResponse toResponse(Category category);
+}
@@ -0,0 +1,13 @@
+package com.expensetracker.mapper;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Expense;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ExpenseMapper {
+    @Mapping(target = "categoryId", source = "category.id")
+    @Mapping(target = "category", source = "category.name")
+    ExpenseResponse toResponse(Expense expense);
+}
@@ -5,6 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_confirmation_token_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_confirmation_token_user_id", columnList = "user_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +22,7 @@ public class ConfirmationToken {
     @Column(nullable = false, unique = true)
     private String token;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private User user;
 
     @Column(nullable = false)
@@ -0,0 +1,63 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A confirmation email waiting to be delivered. Rows are written in the registering transaction and
+ * drained by {@link com.expensetracker.service.EmailOutboxDispatcher}, so mail delivery never runs on
+ * the request thread and a registration is never lost to a mail server outage.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String token;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /** When the row is next eligible for delivery; pushed forward while a dispatcher holds it. */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public static EmailOutbox confirmation(String recipient, String token) {
+        LocalDateTime now = LocalDateTime.now();
+        return EmailOutbox.builder()
+                .recipient(recipient)
+                .token(token)
+                .status(Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
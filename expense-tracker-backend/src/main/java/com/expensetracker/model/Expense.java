@@ -6,23 +6,45 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // Serves keyset pagination: WHERE user_id = ? AND (date, id) < (?, ?) ORDER BY date DESC, id DESC
+        @Index(name = "idx_expense_user_date_id", columnList = "user_id, date, id"),
+        // Serves category-filtered listings and per-category aggregation without touching other categories' rows
+        @Index(name = "idx_expense_user_category_date", columnList = "user_id, category_id, date"),
+        // Foreign key checks when a category is deleted
+        @Index(name = "idx_expense_category_id", columnList = "category_id"),
+        // Serves delta sync: WHERE user_id = ? AND (change_version, id) > (?, ?) ORDER BY change_version, id
+        @Index(name = "idx_expense_user_change_version", columnList = "user_id, change_version, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Expense {
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (IDENTITY needs a round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expense_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private User user;
 
     @Column(nullable = false)
     private BigDecimal amount;
 
     private String description;
-    private String category;
+
+    /** {@code null} for uncategorized expenses. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @Column(nullable = false)
     private LocalDate date;
-} 
\ No newline at end of file
+
+    /** The owner's data version as of the last write to this row (see {@link com.expensetracker.service.DataVersionService}). */
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+}
@@ -0,0 +1,44 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Running total of a user's expenses for one month and category, maintained incrementally by
+ * {@link com.expensetracker.service.ExpenseSummaryService} in the same transaction as each expense write.
+ */
+@Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_expense_summary_user_month_category", columnNames = {"user_id", "month_start", "category_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    /**
+     * Id of the category, or {@code 0} for uncategorized expenses. Not a foreign key, so the
+     * uncategorized bucket can take part in the unique constraint like any other.
+     */
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+}
@@ -0,0 +1,32 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted expense, kept so delta-sync clients learn about deletions they missed.
+ */
+@Entity
+@Table(name = "expense_tombstone", indexes = {
+        @Index(name = "idx_expense_tombstone_user_change_version", columnList = "user_id, change_version, expense_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseTombstone {
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,24 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Counter that changes whenever any of a user's expenses or categories change, maintained by
+ * {@link com.expensetracker.service.DataVersionService} in the same transaction as each write.
+ */
+@Entity
+@Table(name = "user_data_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDataVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "data_version", nullable = false)
+    private long dataVersion;
+}
@@ -1,9 +1,16 @@
 package com.expensetracker.repository;
 
+import com.expensetracker.dto.CategoryResponse;
 import com.expensetracker.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    List<Category> findByUserId(Long userId);
+    @Query("select new com.expensetracker.dto.CategoryResponse(c.id, c.name) from Category c where c.user.id = :userId order by c.id")
+    List<CategoryResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    Optional<Category> findByIdAndUserId(Long id, Long userId);
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    /**
+     * Locks the oldest due messages. Rows already locked by another dispatcher are skipped
+     * ({@code FOR UPDATE SKIP LOCKED} where the database supports it) so instances never block each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from EmailOutbox m where m.status = :status and m.nextAttemptAt <= :now order by m.nextAttemptAt, m.id")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutbox.Status status,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+}
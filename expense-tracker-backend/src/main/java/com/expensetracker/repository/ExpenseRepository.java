@@ -1,9 +1,63 @@
 package com.expensetracker.repository;
 
+import com.expensetracker.dto.ExpenseResponse;
 import com.expensetracker.model.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findByUserId(Long userId);
-} 
\ No newline at end of file
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, ExpenseRepositoryCustom {
+    /** All of a user's expenses, newest first, with the category name joined in; the user row is never read. */
+    @Query("select new com.expensetracker.dto.ExpenseResponse(e.id, e.amount, e.description, c.id, c.name, e.date) "
+            + "from Expense e left join e.category c where e.user.id = :userId order by e.date desc, e.id desc")
+    List<ExpenseResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Forward-only cursor over all of a user's expenses, oldest first. Must be consumed inside a
+     * transaction and closed afterwards; rows are fetched from the driver in chunks of the fetch size
+     * and selected straight into DTOs, so nothing accumulates in the persistence context.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.expensetracker.dto.ExpenseResponse(e.id, e.amount, e.description, c.id, c.name, e.date) "
+            + "from Expense e left join e.category c where e.user.id = :userId order by e.date, e.id")
+    Stream<ExpenseResponse> streamByUserId(@Param("userId") Long userId);
+
+    /**
+     * Expenses written after the (version, id) position, in (version, id) order, as
+     * {@code [changeVersion, id, amount, description, categoryId, categoryName, date]} rows.
+     */
+    @Query("select e.changeVersion, e.id, e.amount, e.description, c.id, c.name, e.date "
+            + "from Expense e left join e.category c where e.user.id = :userId "
+            + "and (e.changeVersion > :version or (e.changeVersion = :version and e.id > :id)) "
+            + "order by e.changeVersion, e.id")
+    List<Object[]> findChangedSince(@Param("userId") Long userId,
+                                    @Param("version") long version,
+                                    @Param("id") long id,
+                                    Pageable pageable);
+
+    /**
+     * Stamps every expense in the category with the owner's new data version; used when the category
+     * is renamed, since delta sync rows carry the category name.
+     */
+    @Modifying
+    @Query("update Expense e set e.changeVersion = :version where e.category.id = :categoryId")
+    int restampCategory(@Param("categoryId") Long categoryId, @Param("version") long version);
+
+    /**
+     * Makes every expense in the category uncategorized, stamping them with the owner's new data
+     * version; used before the category itself is deleted.
+     */
+    @Modifying
+    @Query("update Expense e set e.category = null, e.changeVersion = :version where e.category.id = :categoryId")
+    int clearCategory(@Param("categoryId") Long categoryId, @Param("version") long version);
+}
@@ -0,0 +1,15 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseCursor;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+
+import java.util.List;
+
+public interface ExpenseRepositoryCustom {
+    /**
+     * Returns at most {@code limit} expenses of the user matching {@code filter}, ordered by
+     * date and id descending, starting strictly after {@code after} (or from the top when {@code null}).
+     */
+    List<ExpenseResponse> findPage(Long userId, ExpenseFilter filter, ExpenseCursor after, int limit);
+}
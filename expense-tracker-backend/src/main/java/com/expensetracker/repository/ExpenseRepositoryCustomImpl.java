@@ -0,0 +1,63 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.dto.ExpenseCursor;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ExpenseResponse> findPage(Long userId, ExpenseFilter filter, ExpenseCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseResponse> query = cb.createQuery(ExpenseResponse.class);
+        Root<Expense> root = query.from(Expense.class);
+        Path<LocalDate> date = root.get("date");
+        Path<Long> id = root.get("id");
+        Path<BigDecimal> amount = root.get("amount");
+        Join<Expense, Category> category = root.join("category", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("user").get("id"), userId));
+        if (filter != null) {
+            if (filter.getFrom() != null) predicates.add(cb.greaterThanOrEqualTo(date, filter.getFrom()));
+            if (filter.getTo() != null) predicates.add(cb.lessThanOrEqualTo(date, filter.getTo()));
+            if (filter.getCategoryId() != null) predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            if (filter.getMinAmount() != null) predicates.add(cb.greaterThanOrEqualTo(amount, filter.getMinAmount()));
+            if (filter.getMaxAmount() != null) predicates.add(cb.lessThanOrEqualTo(amount, filter.getMaxAmount()));
+        }
+        if (after != null) {
+            // Row-value comparison (date, id) < (:date, :id), spelled out so the planner can use the index
+            predicates.add(cb.or(
+                    cb.lessThan(date, after.getDate()),
+                    cb.and(cb.equal(date, after.getDate()), cb.lessThan(id, after.getId()))));
+        }
+
+        // Select columns straight into the DTO: no entity hydration, no join to the user table.
+        // The category filter compares the category_id column itself; the join only supplies the name.
+        query.select(cb.construct(ExpenseResponse.class, id, amount, root.get("description"),
+                        category.get("id"), category.get("name"), date))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(date), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ExpenseSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ExpenseSummaryRepository extends JpaRepository<ExpenseSummary, Long> {
+    @Modifying
+    @Query("update ExpenseSummary s set s.total = s.total + :amount, s.expenseCount = s.expenseCount + :count "
+            + "where s.userId = :userId and s.monthStart = :monthStart and s.categoryId = :categoryId")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("monthStart") LocalDate monthStart,
+                   @Param("categoryId") Long categoryId,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    /**
+     * Creates the bucket with the given totals unless it exists. If another transaction is inserting
+     * the same bucket, waits for it to finish and then inserts nothing.
+     *
+     * @return 1 if the bucket was created, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "insert into expense_summary (user_id, month_start, category_id, total, expense_count) "
+            + "values (:userId, :monthStart, :categoryId, :amount, :count) on conflict do nothing",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId,
+                       @Param("monthStart") LocalDate monthStart,
+                       @Param("categoryId") Long categoryId,
+                       @Param("amount") BigDecimal amount,
+                       @Param("count") long count);
+
+    /**
+     * Non-empty buckets in the period as {@code [ExpenseSummary, category name]} pairs; the name is
+     * {@code null} for the uncategorized bucket.
+     */
+    @Query("select s, c.name from ExpenseSummary s left join Category c on c.id = s.categoryId "
+            + "where s.userId = :userId and s.monthStart between :from and :to "
+            + "and s.expenseCount > 0 order by s.monthStart, s.categoryId")
+    List<Object[]> findForPeriod(@Param("userId") Long userId,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to);
+
+    List<ExpenseSummary> findByCategoryId(Long categoryId);
+
+    @Modifying
+    @Query("delete from ExpenseSummary s where s.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
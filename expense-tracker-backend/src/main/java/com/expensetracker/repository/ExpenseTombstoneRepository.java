@@ -0,0 +1,20 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.ExpenseTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstone, Long> {
+    /** Deletions after the (version, id) position, in (version, id) order. */
+    @Query("select t from ExpenseTombstone t where t.userId = :userId "
+            + "and (t.changeVersion > :version or (t.changeVersion = :version and t.expenseId > :id)) "
+            + "order by t.changeVersion, t.expenseId")
+    List<ExpenseTombstone> findChangedSince(@Param("userId") Long userId,
+                                            @Param("version") long version,
+                                            @Param("id") long id,
+                                            Pageable pageable);
+}
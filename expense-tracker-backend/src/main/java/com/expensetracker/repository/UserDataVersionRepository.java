@@ -0,0 +1,29 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+    @Modifying
+    @Query("update UserDataVersion v set v.dataVersion = v.dataVersion + 1 where v.userId = :userId")
+    int increment(@Param("userId") Long userId);
+
+    /**
+     * Creates the user's row unless it exists. If another transaction is inserting the same row, waits
+     * for it to finish and then inserts nothing.
+     *
+     * @return 1 if the row was created, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "insert into user_data_version (user_id, data_version) values (:userId, :version) on conflict do nothing",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("version") long version);
+
+    @Query("select v.dataVersion from UserDataVersion v where v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+}
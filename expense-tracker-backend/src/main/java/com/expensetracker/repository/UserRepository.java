@@ -1,9 +1,35 @@
 package com.expensetracker.repository;
 
+import com.expensetracker.config.CacheConfig;
 import com.expensetracker.model.User;
+import com.expensetracker.security.UserCredentials;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-} 
\ No newline at end of file
+
+    // Cached as an immutable snapshot, never the managed entity, which each request must load for itself.
+    // Unknown emails are not cached, so a later registration never has a negative entry to invalidate
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#p0", unless = "#result == null")
+    @Query("select new com.expensetracker.security.UserCredentials(u.id, u.email, u.password, u.status) "
+            + "from User u where u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    // Always queries and replaces the cached snapshot, which save's eviction does not protect: a reader
+    // that loaded the row before a save committed can put the old snapshot back after the eviction
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#p0", unless = "#result == null")
+    @Query("select new com.expensetracker.security.UserCredentials(u.id, u.email, u.password, u.status) "
+            + "from User u where u.email = :email")
+    Optional<UserCredentials> reloadCredentialsByEmail(@Param("email") String email);
+
+    // Every user write (registration, confirmation, OAuth2 sign-up) goes through save
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.email")
+    <S extends User> S save(S entity);
+}
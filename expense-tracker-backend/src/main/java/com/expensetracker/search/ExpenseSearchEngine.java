@@ -0,0 +1,21 @@
+package com.expensetracker.search;
+
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+
+import java.util.List;
+
+/**
+ * Ranked full-text search over expense descriptions. Selected by {@code app.search.engine}:
+ * {@link PostgresExpenseSearchEngine} in production, {@link InMemoryExpenseSearchEngine} elsewhere.
+ */
+public interface ExpenseSearchEngine {
+    /**
+     * Returns up to {@code limit} of the user's expenses whose description matches any of {@code terms}
+     * and that pass {@code filter}, best match first (ties broken by date and id, newest first),
+     * skipping the first {@code offset} results.
+     *
+     * @param terms normalized search terms from {@link SearchTerms#parse}, never empty
+     */
+    List<ExpenseResponse> search(Long userId, List<String> terms, ExpenseFilter filter, int offset, int limit);
+}
@@ -0,0 +1,118 @@
+package com.expensetracker.search;
+
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.repository.ExpenseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index over each user's descriptions, built on a user's first search and dropped after any
+ * committed change to their expenses. Matching mirrors the Postgres engine (any term, as a prefix)
+ * without stemming; ranking is tf-idf, damped by description length.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemoryExpenseSearchEngine implements ExpenseSearchEngine {
+    private static final Comparator<ExpenseResponse> NEWEST_FIRST = Comparator
+            .comparing(ExpenseResponse::getDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ExpenseResponse::getId, Comparator.reverseOrder());
+
+    private final ExpenseRepository expenseRepository;
+    private final Cache<Long, UserIndex> indexes;
+    // Bumped on every change, so an index built from data read before the change is never cached
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public InMemoryExpenseSearchEngine(ExpenseRepository expenseRepository,
+                                       @Value("${app.search.memory.max-users:1000}") long maxUsers) {
+        this.expenseRepository = expenseRepository;
+        this.indexes = Caffeine.newBuilder().maximumSize(maxUsers).build();
+    }
+
+    @Override
+    public List<ExpenseResponse> search(Long userId, List<String> terms, ExpenseFilter filter, int offset, int limit) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index == null) {
+            long generation = generations.getOrDefault(userId, 0L);
+            UserIndex built = new UserIndex(expenseRepository.findResponsesByUserId(userId));
+            indexes.asMap().compute(userId, (id, current) ->
+                    generations.getOrDefault(userId, 0L) == generation ? built : current);
+            index = built;
+        }
+        return index.search(terms, filter, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        generations.merge(event.getUserId(), 1L, Long::sum);
+        indexes.invalidate(event.getUserId());
+    }
+
+    static final class UserIndex {
+        private final List<ExpenseResponse> documents;
+        private final int[] lengths;
+        /** term -> (document position -> occurrences), sorted by term for prefix lookups */
+        private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+
+        UserIndex(List<ExpenseResponse> documents) {
+            this.documents = documents;
+            this.lengths = new int[documents.size()];
+            for (int doc = 0; doc < documents.size(); doc++) {
+                List<String> words = SearchTerms.parse(documents.get(doc).getDescription());
+                lengths[doc] = words.size();
+                for (String word : words) {
+                    postings.computeIfAbsent(word, w -> new HashMap<>()).merge(doc, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<ExpenseResponse> search(List<String> terms, ExpenseFilter filter, int offset, int limit) {
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                for (Map<Integer, Integer> docs : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    double idf = Math.log(1 + (double) documents.size() / docs.size());
+                    docs.forEach((doc, occurrences) ->
+                            scores.merge(doc, occurrences * idf / (1 + Math.log(lengths[doc])), Double::sum));
+                }
+            }
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>();
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                if (matches(documents.get(entry.getKey()), filter)) {
+                    ranked.add(entry);
+                }
+            }
+            ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(entry -> documents.get(entry.getKey()), NEWEST_FIRST));
+            return ranked.stream()
+                    .skip(offset)
+                    .limit(limit)
+                    .map(entry -> documents.get(entry.getKey()))
+                    .toList();
+        }
+
+        private static boolean matches(ExpenseResponse expense, ExpenseFilter filter) {
+            if (filter == null) {
+                return true;
+            }
+            return (filter.getFrom() == null || !expense.getDate().isBefore(filter.getFrom()))
+                    && (filter.getTo() == null || !expense.getDate().isAfter(filter.getTo()))
+                    && (filter.getCategoryId() == null || filter.getCategoryId().equals(expense.getCategoryId()))
+                    && (filter.getMinAmount() == null || expense.getAmount().compareTo(filter.getMinAmount()) >= 0)
+                    && (filter.getMaxAmount() == null || expense.getAmount().compareTo(filter.getMaxAmount()) <= 0);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.expensetracker.search;
+
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Matches against the generated {@code expense.search_vector} column through its GIN index
+ * (migration {@code postgresql/V3}) and ranks with {@code ts_rank}. Terms are OR-ed prefix matches,
+ * so "uber rides" finds "Uber ride downtown" and rows matching more terms rank higher.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PostgresExpenseSearchEngine implements ExpenseSearchEngine {
+    private static final RowMapper<ExpenseResponse> ROW_MAPPER = (rs, rowNum) -> new ExpenseResponse(
+            rs.getLong("id"),
+            rs.getBigDecimal("amount"),
+            rs.getString("description"),
+            rs.getObject("category_id", Long.class),
+            rs.getString("category_name"),
+            rs.getObject("date", LocalDate.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ExpenseResponse> search(Long userId, List<String> terms, ExpenseFilter filter, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("query", toTsQuery(terms))
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder(
+                "SELECT e.id, e.amount, e.description, e.category_id, c.name AS category_name, e.date, "
+                        + "ts_rank(e.search_vector, q) AS rank "
+                        + "FROM expense e LEFT JOIN category c ON c.id = e.category_id, "
+                        + "to_tsquery('english', :query) q "
+                        + "WHERE e.user_id = :userId AND e.search_vector @@ q");
+        if (filter != null) {
+            if (filter.getFrom() != null) {
+                sql.append(" AND e.date >= :from");
+                params.addValue("from", filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                sql.append(" AND e.date <= :to");
+                params.addValue("to", filter.getTo());
+            }
+            if (filter.getCategoryId() != null) {
+                sql.append(" AND e.category_id = :categoryId");
+                params.addValue("categoryId", filter.getCategoryId());
+            }
+            if (filter.getMinAmount() != null) {
+                sql.append(" AND e.amount >= :minAmount");
+                params.addValue("minAmount", filter.getMinAmount());
+            }
+            if (filter.getMaxAmount() != null) {
+                sql.append(" AND e.amount <= :maxAmount");
+                params.addValue("maxAmount", filter.getMaxAmount());
+            }
+        }
+        sql.append(" ORDER BY rank DESC, e.date DESC, e.id DESC LIMIT :limit OFFSET :offset");
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    // Terms contain only letters and digits (see SearchTerms), so they cannot inject tsquery operators
+    static String toTsQuery(List<String> terms) {
+        return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" | "));
+    }
+}
@@ -0,0 +1,39 @@
+package com.expensetracker.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits free text into lower-case search terms: runs of letters and digits, duplicates removed.
+ * Anything else, including tsquery operators, is a separator, so terms are always safe to
+ * embed in a query.
+ */
+public final class SearchTerms {
+    /** Longer queries are truncated; a description search never needs more. */
+    public static final int MAX_TERMS = 16;
+
+    private SearchTerms() {
+    }
+
+    public static List<String> parse(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return List.of();
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length() && terms.size() < MAX_TERMS; i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+}
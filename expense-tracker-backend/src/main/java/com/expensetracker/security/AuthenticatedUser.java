@@ -0,0 +1,23 @@
+package com.expensetracker.security;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal placed in the security context by the JWT filter. Carries the user id from the
+ * token's {@code userId} claim so controllers never need a database lookup to identify the caller.
+ * <p>
+ * Deliberately not a {@link java.security.Principal}: Spring MVC resolves parameters of that type to
+ * the request's principal (the authentication token) before {@link AuthenticatedUserArgumentResolver}
+ * gets a chance. {@link AuthenticatedPrincipal} still makes {@code Authentication.getName()} the email.
+ */
+@Value
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    Long id;
+    String email;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
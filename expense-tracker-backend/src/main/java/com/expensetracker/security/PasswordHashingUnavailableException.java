@@ -0,0 +1,11 @@
+package com.expensetracker.security;
+
+/**
+ * Thrown when {@link PasswordHasher} sheds load because its queue is full or the wait timed out.
+ * Translated to 503 with {@code Retry-After} by the auth endpoints.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
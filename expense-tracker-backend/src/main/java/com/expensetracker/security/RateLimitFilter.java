@@ -0,0 +1,75 @@
+package com.expensetracker.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers 429 with {@code Retry-After} once a caller runs out of permits. Runs after the JWT filter:
+ * {@code /api/auth/login} is limited per client address whether or not the request carries a token,
+ * and other authenticated requests per user id. Other unauthenticated requests pass through to be
+ * rejected by Spring Security.
+ * <p>
+ * Publishes {@code http.server.requests.rate.limited} (rejected requests by limit).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String LOGIN_PATH = "/api/auth/login";
+
+    private final RateLimiter<Long> userLimiter;
+    private final RateLimiter<String> loginLimiter;
+    private final Counter userRejections;
+    private final Counter loginRejections;
+
+    public RateLimitFilter(RateLimiter<Long> userLimiter, RateLimiter<String> loginLimiter, MeterRegistry meterRegistry) {
+        this.userLimiter = userLimiter;
+        this.loginLimiter = loginLimiter;
+        this.userRejections = Counter.builder("http.server.requests.rate.limited")
+                .description("Requests rejected with 429 by the rate limiter")
+                .tag("limit", "user")
+                .register(meterRegistry);
+        this.loginRejections = Counter.builder("http.server.requests.rate.limited")
+                .description("Requests rejected with 429 by the rate limiter")
+                .tag("limit", "login")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = 0;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Checked before the user bucket: a caller holding a token must not get its far larger
+        // allowance for password guessing
+        if (request.getRequestURI().equals(request.getContextPath() + LOGIN_PATH)) {
+            // The remote address is the client's only when the proxy's forwarded headers are honoured
+            // (server.forward-headers-strategy); otherwise every login shares the proxy's bucket
+            waitNanos = loginLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                loginRejections.increment();
+            }
+        } else if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            waitNanos = userLimiter.tryAcquire(user.getId());
+            if (waitNanos > 0) {
+                userRejections.increment();
+            }
+        }
+        if (waitNanos > 0) {
+            long second = TimeUnit.SECONDS.toNanos(1);
+            long retryAfterSeconds = (waitNanos + second - 1) / second;
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,63 @@
+package com.expensetracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token buckets, implemented as GCRA: each key holds only the time at which its bucket will
+ * be full again, in one {@link AtomicLong} that {@link #tryAcquire} advances with a CAS. Nothing
+ * refills in the background and no lock is taken.
+ * <p>
+ * Keys live in a size-bounded Caffeine cache and expire once idle for as long as a full refill takes,
+ * since an evicted key and a full bucket behave the same.
+ */
+public class RateLimiter<K> {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Ticker ticker;
+    private final Cache<K, AtomicLong> buckets;
+
+    public RateLimiter(double permitsPerSecond, int burst, long maxKeys) {
+        this(permitsPerSecond, burst, maxKeys, Ticker.systemTicker());
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, long maxKeys, Ticker ticker) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes a permit for {@code key} if one is available.
+     *
+     * @return 0 if the permit was taken, otherwise how long to wait, in nanoseconds, before one is available
+     */
+    public long tryAcquire(K key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = ticker.read();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long overdraft = next - now - burstNanos;
+            if (overdraft > 0) {
+                return overdraft;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
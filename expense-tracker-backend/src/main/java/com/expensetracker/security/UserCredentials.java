@@ -0,0 +1,16 @@
+package com.expensetracker.security;
+
+import com.expensetracker.model.User;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of what login needs from a {@link User}. This, rather than the managed entity,
+ * is what the users cache holds, so a cached value can be shared between requests safely.
+ */
+@Value
+public class UserCredentials {
+    Long id;
+    String email;
+    String passwordHash;
+    User.Status status;
+}
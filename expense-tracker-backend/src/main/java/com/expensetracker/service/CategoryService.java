@@ -1,38 +1,140 @@
 package com.expensetracker.service;
 
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.dto.CategoryRequest;
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.event.CategoriesChangedEvent;
+import com.expensetracker.event.ExpensesChangedEvent;
 import com.expensetracker.model.Category;
+import com.expensetracker.model.User;
 import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.repository.ExpenseRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "category.service", description = "CategoryService method calls")
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSummaryService summaryService;
+    private final DataVersionService dataVersionService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public void createCategory(Category category) {
-        categoryRepository.save(category);
+    @Transactional
+    public Category createCategory(Long userId, CategoryRequest request) {
+        User user = new User();
+        user.setId(userId);
+        Category saved = categoryRepository.save(Category.builder().user(user).name(request.getName()).build());
+        dataVersionService.bump(userId);
+        evictCategories(userId);
+        eventPublisher.publishEvent(new CategoriesChangedEvent(userId));
+        return saved;
     }
 
-    public List<Category> getCategoriesByUserId(Long userId) {
-        return categoryRepository.findByUserId(userId);
+    /**
+     * Served from the per-user category cache in the steady state. Every write below evicts the owner's
+     * entry, but a reader that loaded the list before the write committed may put it back afterwards,
+     * so an entry is only served while its version matches the user's current data version.
+     * Cached values are detached DTOs, never entities.
+     */
+    @SuppressWarnings("unchecked")
+    public List<CategoryResponse> getCategoriesByUserId(Long userId) {
+        long version = dataVersionService.current(userId);
+        Cache cache = cacheManager.getCache(CacheConfig.CATEGORIES);
+        CacheConfig.Versioned<List<CategoryResponse>> cached =
+                cache != null ? cache.get(userId, CacheConfig.Versioned.class) : null;
+        if (cached != null && cached.getVersion() == version) {
+            return cached.getValue();
+        }
+        List<CategoryResponse> categories = categoryRepository.findResponsesByUserId(userId);
+        if (cache != null) {
+            cache.put(userId, new CacheConfig.Versioned<>(version, categories));
+        }
+        return categories;
+    }
+
+    /**
+     * Maps each name to the id of the user's category with that name, creating categories for names
+     * the user doesn't have yet. When a user has several categories with the same name, the oldest wins.
+     */
+    @Transactional
+    public Map<String, Long> resolveCategoryIds(Long userId, Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        for (CategoryResponse category : categoryRepository.findResponsesByUserId(userId)) {
+            if (names.contains(category.getName())) {
+                ids.putIfAbsent(category.getName(), category.getId());
+            }
+        }
+        boolean created = false;
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                User user = new User();
+                user.setId(userId);
+                ids.put(name, categoryRepository.save(Category.builder().user(user).name(name).build()).getId());
+                created = true;
+            }
+        }
+        if (created) {
+            dataVersionService.bump(userId);
+            evictCategories(userId);
+            eventPublisher.publishEvent(new CategoriesChangedEvent(userId));
+        }
+        return ids;
     }
 
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
 
-    public void updateCategory(Long id, Category updatedCategory) {
+    @Transactional
+    public void updateCategory(Long id, CategoryRequest request) {
         Category existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
-        existingCategory.setName(updatedCategory.getName());
+        existingCategory.setName(request.getName());
         categoryRepository.save(existingCategory);
+        // Delta sync rows carry the category name, so its expenses count as changed
+        expenseRepository.restampCategory(id, dataVersionService.bump(existingCategory.getUser().getId()));
+        evictCategories(existingCategory.getUser().getId());
+        eventPublisher.publishEvent(new CategoriesChangedEvent(existingCategory.getUser().getId()));
+        // Expense listings and search results carry the category name
+        eventPublisher.publishEvent(new ExpensesChangedEvent(existingCategory.getUser().getId()));
     }
 
+    /**
+     * Deletes the category; its expenses are kept as uncategorized, and their summary totals move
+     * to the uncategorized bucket, in the same transaction. The expenses get the new data version,
+     * so delta sync reports them as changed.
+     */
+    @Transactional
     public void deleteCategory(Long id) {
-        categoryRepository.deleteById(id);
+        categoryRepository.findById(id).ifPresent(category -> {
+            expenseRepository.clearCategory(id, dataVersionService.bump(category.getUser().getId()));
+            summaryService.recordCategoryRemoved(id);
+            categoryRepository.delete(category);
+            evictCategories(category.getUser().getId());
+            eventPublisher.publishEvent(new CategoriesChangedEvent(category.getUser().getId()));
+            eventPublisher.publishEvent(new ExpensesChangedEvent(category.getUser().getId()));
+        });
+    }
+
+    private void evictCategories(Long userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.CATEGORIES);
+        if (cache != null) {
+            cache.evict(userId);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.UserDataVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-user data version behind the ETags of the expense and category listings. Every expense or
+ * category write bumps it inside its own transaction, so a client holding the current ETag can be
+ * answered with 304 from a primary-key lookup instead of re-running the listing query.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+    private final UserDataVersionRepository versionRepository;
+
+    /**
+     * Increments the user's version and returns the new value. The row lock taken by the update (or
+     * by the insert that creates the row) is held until commit, so concurrent writers for one user get
+     * distinct, increasing versions.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(Long userId) {
+        if (versionRepository.increment(userId) == 0) {
+            // First write for this user. A concurrent first write makes the insert wait for it and do
+            // nothing, and the retried update then increments the row it created
+            if (versionRepository.insertIfAbsent(userId, 1) == 1) {
+                return 1;
+            }
+            versionRepository.increment(userId);
+        }
+        return versionRepository.findVersion(userId).orElseThrow();
+    }
+
+    /**
+     * The user's current version; {@code 0} until their first write.
+     */
+    @Transactional(readOnly = true)
+    public long current(Long userId) {
+        return versionRepository.findVersion(userId).orElse(0L);
+    }
+
+    /**
+     * ETag for a listing whose content depends only on the user's expenses and categories. It is weak
+     * because the JSON, Smile and CBOR encodings (gzipped or not) of one version are equivalent but
+     * not byte-identical; Tomcat also declines to compress responses carrying a strong ETag.
+     */
+    public String etag(Long userId) {
+        return "W/\"" + current(userId) + "\"";
+    }
+}
@@ -0,0 +1,153 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.EmailOutbox;
+import com.expensetracker.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the email outbox in the background.
+ * <p>
+ * Each round claims a batch of due messages in a short transaction and pushes their next attempt
+ * out by a lease, then delivers them outside any transaction on a fixed pool of {@code concurrency}
+ * threads, and finally records the outcomes in one more transaction. A failed message is retried with
+ * jittered exponential backoff until {@code maxAttempts} is reached. A dispatcher that dies mid-batch
+ * leaves its messages to be picked up again once the lease expires, so delivery is at-least-once.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email-outbox.dispatcher-enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService senders;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 EmailService emailService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.email-outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.email-outbox.concurrency:4}") int concurrency,
+                                 @Value("${app.email-outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.email-outbox.initial-backoff:30s}") Duration initialBackoff,
+                                 @Value("${app.email-outbox.max-backoff:1h}") Duration maxBackoff,
+                                 @Value("${app.email-outbox.lease:5m}") Duration lease) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.senders = Executors.newFixedThreadPool(concurrency);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${app.email-outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                recordOutcomes(deliver(batch));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(EmailOutbox.Status.PENDING, now, PageRequest.of(0, batchSize));
+            for (EmailOutbox message : due) {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(now.plus(lease));
+            }
+            return due;
+        });
+    }
+
+    /** Sends the batch with bounded concurrency; returns the error message per failed id (null on success). */
+    private Map<Long, String> deliver(List<EmailOutbox> batch) {
+        Map<Long, String> outcomes = new HashMap<>();
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (EmailOutbox message : batch) {
+            sends.add(CompletableFuture.runAsync(
+                    () -> emailService.sendConfirmationEmail(message.getRecipient(), message.getToken()), senders));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox message = batch.get(i);
+            try {
+                sends.get(i).join();
+                outcomes.put(message.getId(), null);
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.warn("Sending confirmation email {} failed (attempt {}): {}", message.getId(), message.getAttempts(), cause.toString());
+                outcomes.put(message.getId(), String.valueOf(cause.getMessage()));
+            }
+        }
+        return outcomes;
+    }
+
+    private void recordOutcomes(Map<Long, String> outcomes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (EmailOutbox message : outboxRepository.findAllById(outcomes.keySet())) {
+                String error = outcomes.get(message.getId());
+                if (error == null) {
+                    message.setStatus(EmailOutbox.Status.SENT);
+                    message.setSentAt(now);
+                    message.setLastError(null);
+                } else {
+                    message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                    if (message.getAttempts() >= maxAttempts) {
+                        message.setStatus(EmailOutbox.Status.FAILED);
+                        logger.error("Giving up on confirmation email {} after {} attempts", message.getId(), message.getAttempts());
+                    } else {
+                        message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+                    }
+                }
+            }
+        });
+    }
+
+    /** Exponential backoff from {@code initialBackoff}, capped at {@code maxBackoff}, with up to 20% jitter. */
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = base < 0 ? maxBackoff.toMillis() : Math.min(base, maxBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped - jitter);
+    }
+}
@@ -0,0 +1,123 @@
+package com.expensetracker.service;
+
+import com.expensetracker.analytics.SpendSeries;
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.dto.ExpenseAnalyticsResponse;
+import com.expensetracker.dto.ExpenseAnalyticsResponse.CategoryStats;
+import com.expensetracker.dto.ExpenseAnalyticsResponse.Point;
+import com.expensetracker.model.Money;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes spend analytics in memory from one narrow, pre-sorted query. Amounts are converted to minor
+ * units in SQL and aggregated as {@code long}s in {@link SpendSeries}; results are wrapped in
+ * {@link Money} only for the (few hundred) output points.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "expense.analytics", description = "ExpenseAnalyticsService method calls")
+public class ExpenseAnalyticsService {
+    public static final int DEFAULT_WINDOW_DAYS = 7;
+    public static final int MAX_WINDOW_DAYS = 90;
+    public static final int MAX_RANGE_DAYS = 5 * 366;
+
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99};
+    // Grouped by category and sorted by amount within it, as SpendSeries.categoryStats requires
+    private static final String SERIES_SQL = "SELECT e.date, CAST(e.amount * 100 AS BIGINT) AS amount_minor, "
+            + "COALESCE(e.category_id, 0) AS category_key "
+            + "FROM expense e WHERE e.user_id = :userId AND e.date BETWEEN :from AND :to "
+            + "ORDER BY category_key, amount_minor";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CategoryService categoryService;
+
+    /**
+     * @throws IllegalArgumentException if the range is inverted or longer than {@link #MAX_RANGE_DAYS},
+     *                                  or {@code window} is outside 1..{@link #MAX_WINDOW_DAYS}
+     */
+    public ExpenseAnalyticsResponse analyze(Long userId, LocalDate from, LocalDate to, int window) {
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount < 1 || dayCount > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must cover 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        if (window < 1 || window > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Window must be 1 to " + MAX_WINDOW_DAYS + " days");
+        }
+
+        SpendSeries series = new SpendSeries(1024);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("from", from)
+                .addValue("to", to);
+        jdbcTemplate.query(SERIES_SQL, params, (RowCallbackHandler) rs -> series.add(
+                (int) rs.getObject(1, LocalDate.class).toEpochDay(), rs.getLong(2), rs.getLong(3)));
+
+        long[] daily = series.dailyTotals(from.toEpochDay(), (int) dayCount);
+        return new ExpenseAnalyticsResponse(
+                from,
+                to,
+                window,
+                dailyPoints(from, daily),
+                points(SpendSeries.bucket(daily, from, SpendSeries.Period.WEEK)),
+                points(SpendSeries.bucket(daily, from, SpendSeries.Period.MONTH)),
+                averagePoints(from, SpendSeries.rollingAverage(daily, window)),
+                categoryStats(userId, series));
+    }
+
+    private List<CategoryStats> categoryStats(Long userId, SpendSeries series) {
+        Map<Long, String> names = new HashMap<>();
+        for (CategoryResponse category : categoryService.getCategoriesByUserId(userId)) {
+            names.put(category.getId(), category.getName());
+        }
+        List<CategoryStats> stats = new ArrayList<>();
+        series.categoryStats(PERCENTILES, (categoryId, count, total, percentiles) -> stats.add(new CategoryStats(
+                categoryId == 0 ? null : categoryId,
+                categoryId == 0 ? null : names.get(categoryId),
+                count,
+                money(total),
+                money(percentiles[0]),
+                money(percentiles[1]),
+                money(percentiles[2]))));
+        return stats;
+    }
+
+    private static List<Point> dailyPoints(LocalDate from, long[] daily) {
+        List<Point> points = new ArrayList<>(daily.length);
+        for (int i = 0; i < daily.length; i++) {
+            points.add(new Point(from.plusDays(i), money(daily[i])));
+        }
+        return points;
+    }
+
+    private static List<Point> averagePoints(LocalDate from, double[] averages) {
+        List<Point> points = new ArrayList<>(averages.length);
+        for (int i = 0; i < averages.length; i++) {
+            points.add(new Point(from.plusDays(i), money(Math.round(averages[i]))));
+        }
+        return points;
+    }
+
+    private static List<Point> points(SpendSeries.Buckets buckets) {
+        List<Point> points = new ArrayList<>(buckets.getStarts().length);
+        for (int i = 0; i < buckets.getStarts().length; i++) {
+            points.add(new Point(buckets.getStarts()[i], money(buckets.getTotals()[i])));
+        }
+        return points;
+    }
+
+    private static Money money(long minor) {
+        return Money.ofMinor(minor);
+    }
+}
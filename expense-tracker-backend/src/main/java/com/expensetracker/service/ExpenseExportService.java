@@ -0,0 +1,109 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full ledger straight from a database cursor to the response. Rows are read as
+ * DTOs and serialized one at a time, so heap use does not depend on row count.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseExportService {
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final ExpenseRepository expenseRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(Long userId, Format format, OutputStream out) throws IOException {
+        try (Stream<ExpenseResponse> expenses = expenseRepository.streamByUserId(userId)) {
+            Iterator<ExpenseResponse> it = expenses.iterator();
+            if (format == Format.CSV) {
+                writeCsv(it, out);
+            } else {
+                writeNdjson(it, out);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<ExpenseResponse> expenses, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,date,amount,category,description\n");
+        while (expenses.hasNext()) {
+            ExpenseResponse expense = expenses.next();
+            writer.write(String.valueOf(expense.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(expense.getDate()));
+            writer.write(',');
+            writer.write(expense.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(csvField(expense.getCategory()));
+            writer.write(',');
+            writer.write(csvField(expense.getDescription()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<ExpenseResponse> expenses, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        while (expenses.hasNext()) {
+            ExpenseResponse expense = expenses.next();
+            json.writeStartObject();
+            json.writeNumberField("id", expense.getId());
+            json.writeStringField("date", String.valueOf(expense.getDate()));
+            json.writeNumberField("amount", expense.getAmount());
+            json.writeStringField("category", expense.getCategory());
+            json.writeStringField("description", expense.getDescription());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        json.close();
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,293 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseImportResult;
+import com.expensetracker.dto.ExpenseImportRow;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+import com.expensetracker.model.User;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk expense import. All rows are validated up front; if any row is invalid nothing is written.
+ * Valid imports are inserted in chunked transactions, flushing every JDBC batch and clearing the
+ * persistence context so memory stays bounded and Hibernate emits multi-row batched inserts.
+ * Category names are resolved to the user's category ids once per import, creating missing categories.
+ * <p>
+ * A valid import is therefore not all-or-nothing: if a chunk fails to insert, it is rolled back but the
+ * chunks before it stay committed, and the result reports how many rows were imported and the index of
+ * the first row that was not (see {@link ExpenseImportResult#failed}).
+ */
+@Service
+public class ExpenseImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+    // Keeps every chunk total well inside Money's long range
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("1000000000000");
+
+    private final EntityManager entityManager;
+    private final ExpenseSummaryService summaryService;
+    private final DataVersionService dataVersionService;
+    private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int maxRows;
+
+    public ExpenseImportService(EntityManager entityManager,
+                                ExpenseSummaryService summaryService,
+                                DataVersionService dataVersionService,
+                                CategoryService categoryService,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.import.chunk-size:5000}") int chunkSize,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                @Value("${app.import.max-rows:100000}") int maxRows) {
+        this.entityManager = entityManager;
+        this.summaryService = summaryService;
+        this.dataVersionService = dataVersionService;
+        this.categoryService = categoryService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    public ExpenseImportResult importExpenses(Long userId, List<ExpenseImportRow> rows) {
+        List<String> errors = validate(rows);
+        if (!errors.isEmpty()) {
+            return ExpenseImportResult.rejected(errors);
+        }
+        long start = System.nanoTime();
+        Set<String> names = new HashSet<>();
+        for (ExpenseImportRow row : rows) {
+            if (row.getCategory() != null && !row.getCategory().isBlank()) {
+                names.add(row.getCategory());
+            }
+        }
+        Map<String, Long> categoryIds = names.isEmpty() ? Map.of() : categoryService.resolveCategoryIds(userId, names);
+        int imported = 0;
+        try {
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                List<ExpenseImportRow> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+                transactionTemplate.executeWithoutResult(status -> insertChunk(userId, chunk, categoryIds));
+                imported += chunk.size();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Import for user {} failed at row {}; the {} rows before it are committed",
+                    userId, imported, imported, e);
+            return ExpenseImportResult.failed(imported, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            // Also after a failed chunk: the chunks before it are committed
+            eventPublisher.publishEvent(new ExpensesChangedEvent(userId));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : rows.size() * 1_000_000_000d / elapsedNanos;
+        logger.info("Imported {} expenses for user {} in {} ms ({} rows/s)",
+                rows.size(), userId, elapsedMillis, Math.round(rowsPerSecond));
+        return new ExpenseImportResult(rows.size(), elapsedMillis, rowsPerSecond, List.of(), null);
+    }
+
+    /**
+     * Parses a CSV document with a header row naming the columns {@code date}, {@code amount},
+     * {@code category} and {@code description} (any order; only {@code amount} is required) and imports it.
+     */
+    public ExpenseImportResult importCsv(Long userId, Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            return ExpenseImportResult.rejected(List.of("CSV is empty"));
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("amount")) {
+            return ExpenseImportResult.rejected(List.of("CSV header must contain an 'amount' column"));
+        }
+
+        List<ExpenseImportRow> rows = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        List<String> record;
+        int line = 1;
+        while ((record = readRecord(reader)) != null) {
+            line++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (rows.size() + errors.size() >= maxRows) {
+                return ExpenseImportResult.rejected(List.of("Import is limited to " + maxRows + " rows"));
+            }
+            try {
+                String amount = column(record, columns, "amount");
+                String date = column(record, columns, "date");
+                rows.add(ExpenseImportRow.builder()
+                        .amount(amount == null ? null : new BigDecimal(amount))
+                        .date(date == null ? null : LocalDate.parse(date))
+                        .category(column(record, columns, "category"))
+                        .description(column(record, columns, "description"))
+                        .build());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                addError(errors, "line " + line + ": unparseable amount or date");
+            }
+        }
+        if (!errors.isEmpty()) {
+            return ExpenseImportResult.rejected(errors);
+        }
+        return importExpenses(userId, rows);
+    }
+
+    private void insertChunk(Long userId, List<ExpenseImportRow> chunk, Map<String, Long> categoryIds) {
+        User user = entityManager.getReference(User.class, userId);
+        // Every row of the chunk carries the version bumped for it
+        long version = dataVersionService.bump(userId);
+        // One summary update per (month, category) bucket rather than one per row; 0 keys uncategorized rows.
+        // Each bucket is {total in minor units, count}, so adding a row allocates nothing.
+        Map<YearMonth, Map<Long, long[]>> buckets = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ExpenseImportRow row = chunk.get(i);
+            LocalDate date = row.getDate() != null ? row.getDate() : LocalDate.now();
+            Long categoryId = row.getCategory() == null ? null : categoryIds.get(row.getCategory());
+            entityManager.persist(Expense.builder()
+                    .user(user)
+                    .amount(row.getAmount())
+                    .description(row.getDescription())
+                    // A reference only carries the id for the foreign key column; nothing is loaded
+                    .category(categoryId == null ? null : entityManager.getReference(Category.class, categoryId))
+                    .date(date)
+                    .changeVersion(version)
+                    .build());
+            long category = categoryId == null ? 0L : categoryId;
+            long[] bucket = buckets.computeIfAbsent(YearMonth.from(date), m -> new HashMap<>())
+                    .computeIfAbsent(category, c -> new long[2]);
+            bucket[0] = Math.addExact(bucket[0], Money.toMinor(row.getAmount()));
+            bucket[1]++;
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                user = entityManager.getReference(User.class, userId);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        buckets.forEach((month, byCategory) -> byCategory.forEach((category, bucket) ->
+                summaryService.recordBulkAdded(userId, month, category == 0L ? null : category,
+                        Money.toBigDecimal(bucket[0]), bucket[1])));
+    }
+
+    private List<String> validate(List<ExpenseImportRow> rows) {
+        List<String> errors = new ArrayList<>();
+        if (rows == null || rows.isEmpty()) {
+            errors.add("No expenses to import");
+            return errors;
+        }
+        if (rows.size() > maxRows) {
+            errors.add("Import is limited to " + maxRows + " rows");
+            return errors;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            ExpenseImportRow row = rows.get(i);
+            if (row == null || row.getAmount() == null) {
+                addError(errors, "row " + (i + 1) + ": amount is required");
+            } else if (row.getAmount().stripTrailingZeros().scale() > 2) {
+                addError(errors, "row " + (i + 1) + ": amount has more than 2 decimal places");
+            } else if (row.getAmount().abs().compareTo(MAX_AMOUNT) > 0) {
+                addError(errors, "row " + (i + 1) + ": amount is out of range");
+            } else if (tooLong(row.getDescription()) || tooLong(row.getCategory())) {
+                addError(errors, "row " + (i + 1) + ": description and category are limited to " + MAX_TEXT_LENGTH + " characters");
+            }
+        }
+        return errors;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH;
+    }
+
+    private static void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Reads one RFC 4180 record (quoted fields may contain commas, doubled quotes and line breaks).
+     * Returns {@code null} at end of input. The reader must support {@link Reader#mark(int)}.
+     */
+    static List<String> readRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next == -1) {
+                            break;
+                        }
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,45 +1,223 @@
 package com.expensetracker.service;
 
+import com.expensetracker.dto.ChangeCursor;
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseChanges;
+import com.expensetracker.dto.ExpenseCursor;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.dto.SearchPage;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseTombstone;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.CategoryRepository;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseTombstoneRepository;
+import com.expensetracker.search.ExpenseSearchEngine;
+import com.expensetracker.search.SearchTerms;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "expense.service", description = "ExpenseService method calls")
 public class ExpenseService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int DEFAULT_CHANGES_PAGE_SIZE = 500;
+    public static final int MAX_CHANGES_PAGE_SIZE = 2000;
+
     private final ExpenseRepository expenseRepository;
+    private final ExpenseTombstoneRepository tombstoneRepository;
+    private final CategoryRepository categoryRepository;
+    private final ExpenseSummaryService summaryService;
+    private final DataVersionService dataVersionService;
+    private final ExpenseSearchEngine searchEngine;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public void createExpense(Expense expense) {
+    /**
+     * @throws IllegalArgumentException if {@code request.categoryId} is not one of the user's categories
+     */
+    @Transactional
+    public Expense createExpense(Long userId, ExpenseRequest request) {
+        User user = new User();
+        user.setId(userId);
+        Expense expense = Expense.builder()
+                .user(user)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .category(resolveCategory(userId, request.getCategoryId()))
+                .date(request.getDate() != null ? request.getDate() : LocalDate.now())
+                .changeVersion(dataVersionService.bump(userId))
+                .build();
         expenseRepository.save(expense);
+        summaryService.recordAdded(userId, expense.getDate(), categoryId(expense), expense.getAmount());
+        eventPublisher.publishEvent(new ExpensesChangedEvent(userId));
+        return expense;
+    }
+
+    public List<ExpenseResponse> getExpensesByUserId(Long userId) {
+        return expenseRepository.findResponsesByUserId(userId);
+    }
+
+    /**
+     * Keyset-paginated listing, newest first. Cost depends on the page size only, not on
+     * how many expenses the user has, because each page seeks directly to the cursor position.
+     *
+     * @throws IllegalArgumentException if {@code cursor} is not a token produced by a previous page
+     */
+    public CursorPage<ExpenseResponse> getExpensePage(Long userId, ExpenseFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ExpenseCursor after = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<ExpenseResponse> rows = expenseRepository.findPage(userId, filter, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ExpenseResponse> items = rows.subList(0, pageSize);
+        ExpenseResponse last = items.get(pageSize - 1);
+        return new CursorPage<>(items, new ExpenseCursor(last.getDate(), last.getId()).encode());
+    }
+
+    /**
+     * Ranked full-text search over descriptions, narrowed by {@code filter}. Pages are numbered from 0.
+     *
+     * @throws IllegalArgumentException if {@code query} contains no searchable words
+     */
+    public SearchPage<ExpenseResponse> search(Long userId, String query, ExpenseFilter filter, int page, int size) {
+        List<String> terms = SearchTerms.parse(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query has no words");
+        }
+        int pageNumber = Math.max(0, page);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        List<ExpenseResponse> rows = searchEngine.search(userId, terms, filter, pageNumber * pageSize, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new SearchPage<>(rows, pageNumber, null);
+        }
+        return new SearchPage<>(rows.subList(0, pageSize), pageNumber, pageNumber + 1);
     }
 
-    public List<Expense> getExpensesByUserId(Long userId) {
-        return expenseRepository.findByUserId(userId);
+    /**
+     * Expenses written and deleted after {@code since}, oldest change first, for delta sync. Work is
+     * proportional to the number of changes returned: both sources are read by index from the
+     * cursor position. Each write locks the user's version row until commit (a user's first write
+     * creates it, and concurrent first writes wait for that insert; see {@link DataVersionService#bump}),
+     * so versions become visible in increasing order and a cursor never skips a change that commits later.
+     * <p>
+     * Repeatable read gives both queries one snapshot; otherwise a delete committing between them
+     * could move the cursor past an update that the first query missed.
+     *
+     * @throws IllegalArgumentException if {@code since} is not a cursor returned by a previous call
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ExpenseChanges getChanges(Long userId, String since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE_SIZE));
+        ChangeCursor after = since == null || since.isBlank() ? ChangeCursor.START : ChangeCursor.decode(since);
+        // One extra row from each source tells whether another page exists
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+        List<Object[]> written = expenseRepository.findChangedSince(userId, after.getVersion(), after.getId(), fetch);
+        List<ExpenseTombstone> deleted = tombstoneRepository.findChangedSince(userId, after.getVersion(), after.getId(), fetch);
+
+        // Merge the two (version, id)-ordered lists; an id is never in both
+        List<ExpenseResponse> upserted = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        ChangeCursor position = after;
+        int w = 0;
+        int d = 0;
+        while (upserted.size() + deletedIds.size() < pageSize && (w < written.size() || d < deleted.size())) {
+            boolean takeWritten = d == deleted.size() || (w < written.size()
+                    && compare((long) written.get(w)[0], (Long) written.get(w)[1],
+                               deleted.get(d).getChangeVersion(), deleted.get(d).getExpenseId()) < 0);
+            if (takeWritten) {
+                Object[] row = written.get(w++);
+                upserted.add(new ExpenseResponse((Long) row[1], (BigDecimal) row[2], (String) row[3],
+                        (Long) row[4], (String) row[5], (LocalDate) row[6]));
+                position = new ChangeCursor((long) row[0], (Long) row[1]);
+            } else {
+                ExpenseTombstone tombstone = deleted.get(d++);
+                deletedIds.add(tombstone.getExpenseId());
+                position = new ChangeCursor(tombstone.getChangeVersion(), tombstone.getExpenseId());
+            }
+        }
+        boolean hasMore = w < written.size() || d < deleted.size();
+        return new ExpenseChanges(upserted, deletedIds, position.encode(), hasMore);
+    }
+
+    private static int compare(long version, long id, long otherVersion, long otherId) {
+        int byVersion = Long.compare(version, otherVersion);
+        return byVersion != 0 ? byVersion : Long.compare(id, otherId);
     }
 
-    public boolean updateExpense(Long expenseId, Expense updated, Long userId) {
+    /**
+     * @throws IllegalArgumentException if {@code updated.categoryId} is not one of the user's categories
+     */
+    @Transactional
+    public boolean updateExpense(Long expenseId, ExpenseRequest updated, Long userId) {
         Optional<Expense> opt = expenseRepository.findById(expenseId);
         if (opt.isEmpty()) return false;
         Expense existing = opt.get();
         if (!existing.getUser().getId().equals(userId)) return false;
+        LocalDate oldDate = existing.getDate();
+        Long oldCategoryId = categoryId(existing);
+        BigDecimal oldAmount = existing.getAmount();
         existing.setAmount(updated.getAmount());
         existing.setDescription(updated.getDescription());
-        existing.setCategory(updated.getCategory());
-        existing.setDate(updated.getDate());
+        if (!Objects.equals(oldCategoryId, updated.getCategoryId())) {
+            existing.setCategory(resolveCategory(userId, updated.getCategoryId()));
+        }
+        existing.setDate(updated.getDate() != null ? updated.getDate() : existing.getDate());
+        existing.setChangeVersion(dataVersionService.bump(userId));
         expenseRepository.save(existing);
+        summaryService.recordChanged(userId, oldDate, oldCategoryId, oldAmount,
+                existing.getDate(), categoryId(existing), existing.getAmount());
+        eventPublisher.publishEvent(new ExpensesChangedEvent(userId));
         return true;
     }
 
+    @Transactional
     public boolean deleteExpense(Long expenseId, Long userId) {
         Optional<Expense> opt = expenseRepository.findById(expenseId);
         if (opt.isEmpty()) return false;
         Expense existing = opt.get();
         if (!existing.getUser().getId().equals(userId)) return false;
         expenseRepository.delete(existing);
+        tombstoneRepository.save(new ExpenseTombstone(existing.getId(), userId,
+                dataVersionService.bump(userId), LocalDateTime.now()));
+        summaryService.recordRemoved(userId, existing.getDate(), categoryId(existing), existing.getAmount());
+        eventPublisher.publishEvent(new ExpensesChangedEvent(userId));
         return true;
     }
-} 
\ No newline at end of file
+
+    private Category resolveCategory(Long userId, Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryRepository.findByIdAndUserId(categoryId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown category " + categoryId));
+    }
+
+    // Reading the id of a lazy association does not initialize the proxy
+    private static Long categoryId(Expense expense) {
+        return expense.getCategory() == null ? null : expense.getCategory().getId();
+    }
+}
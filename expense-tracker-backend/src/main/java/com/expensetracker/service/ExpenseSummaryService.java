@@ -0,0 +1,104 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseSummaryResponse;
+import com.expensetracker.model.ExpenseSummary;
+import com.expensetracker.repository.ExpenseSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps per-user, per-month, per-category totals in step with the expense table. Every write method
+ * must run inside the caller's transaction so the summary can never drift from the expenses it covers.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseSummaryService {
+    private static final long UNCATEGORIZED = 0L;
+
+    private final ExpenseSummaryRepository summaryRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(Long userId, LocalDate date, Long categoryId, BigDecimal amount) {
+        applyDelta(userId, date, categoryId, amount, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Long userId, LocalDate date, Long categoryId, BigDecimal amount) {
+        applyDelta(userId, date, categoryId, amount.negate(), -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Long userId,
+                              LocalDate oldDate, Long oldCategoryId, BigDecimal oldAmount,
+                              LocalDate newDate, Long newCategoryId, BigDecimal newAmount) {
+        boolean sameBucket = oldDate != null && YearMonth.from(oldDate).equals(YearMonth.from(newDate))
+                && key(oldCategoryId) == key(newCategoryId);
+        if (sameBucket) {
+            BigDecimal delta = newAmount.subtract(oldAmount);
+            if (delta.signum() != 0) {
+                applyDelta(userId, newDate, newCategoryId, delta, 0);
+            }
+            return;
+        }
+        applyDelta(userId, oldDate, oldCategoryId, oldAmount.negate(), -1);
+        applyDelta(userId, newDate, newCategoryId, newAmount, 1);
+    }
+
+    /**
+     * Adds a pre-aggregated delta for one bucket, e.g. the sum of a bulk-import chunk.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBulkAdded(Long userId, YearMonth month, Long categoryId, BigDecimal amount, long count) {
+        applyDelta(userId, month.atDay(1), categoryId, amount, count);
+    }
+
+    /**
+     * Folds every bucket of a category into the uncategorized bucket of the same month. Must run in
+     * the transaction that detaches the category's expenses, before the category row is deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCategoryRemoved(Long categoryId) {
+        List<ExpenseSummary> buckets = summaryRepository.findByCategoryId(categoryId);
+        summaryRepository.deleteByCategoryId(categoryId);
+        for (ExpenseSummary bucket : buckets) {
+            applyDelta(bucket.getUserId(), bucket.getMonthStart(), null, bucket.getTotal(), bucket.getExpenseCount());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryResponse> getSummary(Long userId, YearMonth from, YearMonth to) {
+        return summaryRepository.findForPeriod(userId, from.atDay(1), to.atDay(1)).stream()
+                .map(row -> {
+                    ExpenseSummary s = (ExpenseSummary) row[0];
+                    boolean uncategorized = s.getCategoryId() == UNCATEGORIZED;
+                    return new ExpenseSummaryResponse(
+                            YearMonth.from(s.getMonthStart()),
+                            uncategorized ? null : s.getCategoryId(),
+                            uncategorized ? null : (String) row[1],
+                            s.getTotal(),
+                            s.getExpenseCount());
+                })
+                .toList();
+    }
+
+    private void applyDelta(Long userId, LocalDate date, Long categoryId, BigDecimal amount, long count) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        long key = key(categoryId);
+        if (summaryRepository.applyDelta(userId, monthStart, key, amount, count) == 0
+                && summaryRepository.insertIfAbsent(userId, monthStart, key, amount, count) == 0) {
+            // A concurrent write created the bucket first; the insert waited for it, so the update now applies
+            summaryRepository.applyDelta(userId, monthStart, key, amount, count);
+        }
+    }
+
+    private static long key(Long categoryId) {
+        return categoryId == null ? UNCATEGORIZED : categoryId;
+    }
+}
@@ -1,23 +1,64 @@
 package com.expensetracker.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 
 @Service
 public class JwtService {
-    @Value("${jwt.secret:defaultsecretkeydefaultsecretkey}")
-    private String secret;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Cache<String, Claims> claimsCache;
+    private final Timer cachedParseTimer;
+    private final Timer verifiedParseTimer;
+    private final Timer rejectedParseTimer;
+
+    public JwtService(@Value("${jwt.secret:defaultsecretkeydefaultsecretkey}") String secret,
+                      @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize,
+                      @Value("${jwt.claims-cache.max-ttl:5m}") Duration claimsCacheMaxTtl,
+                      MeterRegistry meterRegistry) {
+        // Key and parser are immutable and thread-safe, so build them once rather than per request
+        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry(claimsCacheMaxTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+        this.cachedParseTimer = parseTimer(meterRegistry, "cached");
+        this.verifiedParseTimer = parseTimer(meterRegistry, "verified");
+        this.rejectedParseTimer = parseTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer parseTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.parse")
+                .description("Time to resolve a bearer token to its claims")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
     public String generateToken(String email, Long userId) {
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(email)
@@ -28,12 +69,68 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. Claims of tokens that verified before are served
+     * from a bounded cache keyed by the token's SHA-256 digest, skipping HMAC verification and
+     * JSON decoding; an entry never outlives the token's own expiry.
+     */
     public Claims parseToken(String token) {
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parser()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        String cacheKey = digest(token);
+        Claims cached = claimsCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            cachedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            claimsCache.put(cacheKey, claims);
+            verifiedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires each cached entry when its token expires, or after {@code maxTtlNanos} for tokens
+     * without an expiry or with a longer remaining lifetime.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -4,33 +4,49 @@ import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.model.ConfirmationToken;
 import com.expensetracker.repository.ConfirmationTokenRepository;
+import com.expensetracker.model.EmailOutbox;
+import com.expensetracker.repository.EmailOutboxRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.expensetracker.security.PasswordHasher;
+import com.expensetracker.security.UserCredentials;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
-    private final EmailService emailService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final PasswordHasher passwordHasher;
     private final ConfirmationTokenRepository tokenRepository;
     private final JwtService jwtService;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * Creates the pending user together with its confirmation token and an outbox row for the
+     * confirmation email, all in one transaction; {@link EmailOutboxDispatcher} delivers the email.
+     * The password is hashed before the transaction starts so no connection is held during BCrypt.
+     */
     public void registerUser(String email, String password) {
-        String encodedPassword = passwordEncoder.encode(password);
-        User user = User.builder()
-                .email(email)
-                .password(encodedPassword)
-                .status(User.Status.PENDING)
-                .build();
-        userRepository.save(user);
-        // In real code, generate a real token
-        String token = "dummy-token";
-        emailService.sendConfirmationEmail(email, token);
+        String encodedPassword = passwordHasher.encode(password);
+        String token = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = User.builder()
+                    .email(email)
+                    .password(encodedPassword)
+                    .status(User.Status.PENDING)
+                    .build();
+            userRepository.save(user);
+            tokenRepository.save(new ConfirmationToken(token, user));
+            emailOutboxRepository.save(EmailOutbox.confirmation(email, token));
+        });
     }
 
+    @Transactional
     public boolean confirmUser(String token) {
         Optional<ConfirmationToken> confirmationTokenOpt = tokenRepository.findByToken(token);
         if (confirmationTokenOpt.isEmpty()) {
@@ -43,12 +59,17 @@ public class UserService {
         return true;
     }
 
+    @Timed(value = "user.login", description = "Login attempts, including password verification")
     public String login(String email, String password) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        Optional<UserCredentials> userOpt = userRepository.findCredentialsByEmail(email);
         if (userOpt.isEmpty()) return null;
-        User user = userOpt.get();
-        if (user.getStatus() != User.Status.ACTIVE) return null;
-        if (!passwordEncoder.matches(password, user.getPassword())) return null;
+        UserCredentials user = userOpt.get();
+        if (user.getStatus() != User.Status.ACTIVE) {
+            // The cached snapshot may be a pending one put back after confirmUser committed; check the row
+            user = userRepository.reloadCredentialsByEmail(email).orElse(null);
+            if (user == null || user.getStatus() != User.Status.ACTIVE) return null;
+        }
+        if (!passwordHasher.matches(password, user.getPasswordHash())) return null;
         return jwtService.generateToken(user.getEmail(), user.getId());
     }
 
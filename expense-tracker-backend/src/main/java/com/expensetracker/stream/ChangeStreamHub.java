@@ -0,0 +1,247 @@
+package com.expensetracker.stream;
+
+import com.expensetracker.event.CategoriesChangedEvent;
+import com.expensetracker.event.ExpensesChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed expense and category changes out to each user's open Server-Sent Events streams.
+ * <p>
+ * Events carry no data beyond their name ({@code expenses} or {@code categories}); a client reacts
+ * by fetching {@code /api/expenses/changes} or revalidating its listings with their ETags. An idle
+ * stream costs one async request and a small queue, with no thread.
+ * <p>
+ * Each subscriber has a bounded queue, drained by a small shared sender pool, so publishing never
+ * blocks the writing request. At most one drain per subscriber is queued or running, which bounds
+ * the pool's backlog by the number of subscribers. A subscriber whose queue fills up is dropped: its
+ * stream is completed, and the client reconnects and catches up through the changes endpoint.
+ * Heartbeat comments keep idle connections from being closed by proxies. They run on the hub's own
+ * timer thread, so other scheduled jobs (e.g. the email outbox waiting on SMTP) cannot delay them.
+ */
+@Component
+public class ChangeStreamHub {
+    enum Message {
+        EXPENSES, CATEGORIES, HEARTBEAT;
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return this == HEARTBEAT
+                    ? SseEmitter.event().comment("heartbeat")
+                    : SseEmitter.event().name(name().toLowerCase(Locale.ROOT)).data("changed");
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long heartbeatIntervalMillis;
+    private final Counter dropped;
+
+    public ChangeStreamHub(MeterRegistry meterRegistry,
+                           @Value("${app.change-stream.sender-threads:4}") int senderThreads,
+                           @Value("${app.change-stream.buffer-size:64}") int bufferSize,
+                           @Value("${app.change-stream.timeout:30m}") Duration timeout,
+                           @Value("${app.change-stream.heartbeat-interval-ms:20000}") long heartbeatIntervalMillis) {
+        this(meterRegistry, senderPool(senderThreads), bufferSize, timeout, Duration.ofMillis(heartbeatIntervalMillis));
+    }
+
+    ChangeStreamHub(MeterRegistry meterRegistry, ExecutorService senders, int bufferSize, Duration timeout,
+                    Duration heartbeatInterval) {
+        this.senders = senders;
+        // The thread is only started once heartbeats are scheduled
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatIntervalMillis = heartbeatInterval.toMillis();
+        this.dropped = Counter.builder("change.stream.dropped")
+                .description("Change streams closed because the client fell behind")
+                .register(meterRegistry);
+        Gauge.builder("change.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open change streams")
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService senderPool(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "change-stream-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream for the user. It ends after the configured timeout; clients are expected to reconnect.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        emitter.onCompletion(() -> {
+            subscriber.finished.set(true);
+            unsubscribe(subscriber);
+        });
+        emitter.onError(e -> {
+            subscriber.finished.set(true);
+            unsubscribe(subscriber);
+        });
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        // Flushes the response headers so the client sees the stream open straight away
+        enqueue(subscriber, Message.HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        publish(event.getUserId(), Message.EXPENSES);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        publish(event.getUserId(), Message.CATEGORIES);
+    }
+
+    @PostConstruct
+    public void startHeartbeats() {
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void heartbeat() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                // A stream with messages pending is not idle
+                if (subscriber.queue.isEmpty()) {
+                    enqueue(subscriber, Message.HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void publish(Long userId, Message message) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            for (Subscriber subscriber : userSubscribers) {
+                enqueue(subscriber, message);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Message message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            dropped.increment();
+            unsubscribe(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * Removes the subscriber from the hub and makes sure a drain runs to complete its stream. The
+     * stream is completed on a sender thread, because completing waits for any send in progress.
+     */
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        subscriberCount.decrementAndGet();
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Message message;
+            while (!subscriber.closed.get() && (message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(message.toEvent());
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already ended; the container completes the request
+            subscriber.finished.set(true);
+            unsubscribe(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed.get()) {
+            if (subscriber.finished.compareAndSet(false, true)) {
+                subscriber.emitter.complete();
+            }
+        } else if (!subscriber.queue.isEmpty()) {
+            // A message arrived after the last poll but before draining was cleared
+            schedule(subscriber);
+        }
+    }
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Message> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Set once the hub stops delivering; the stream itself may still need completing
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Set once the stream has ended, by us or by the container
+        final AtomicBoolean finished = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- Keyset pagination: WHERE user_id = ? AND (date, id) < (?, ?) ORDER BY date DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_expense_user_date_id ON expense (user_id, date, id);
@@ -0,0 +1,3 @@
+-- Expense ids come from the pooled sequence expense_seq (allocation size 50) instead of IDENTITY, so
+-- bulk imports can batch inserts. The column keeps its IDENTITY default, which is no longer used.
+CREATE SEQUENCE IF NOT EXISTS expense_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,18 @@
+-- expense.category (free text) becomes expense.category_id, a foreign key to category. Names without a
+-- matching category get one created for the owner; where a user already has several categories with
+-- the same name, the oldest one is used. The previous version must be stopped while this runs.
+
+INSERT INTO category (user_id, name)
+SELECT DISTINCT e.user_id, e.category
+FROM expense e
+WHERE e.category IS NOT NULL AND e.category <> ''
+  AND NOT EXISTS (SELECT 1 FROM category c WHERE c.user_id = e.user_id AND c.name = e.category);
+
+-- The column may already exist where a later version ran under ddl-auto: update
+ALTER TABLE expense ADD COLUMN IF NOT EXISTS category_id BIGINT;
+ALTER TABLE expense ADD CONSTRAINT fk_expense_category FOREIGN KEY (category_id) REFERENCES category (id);
+UPDATE expense e
+SET category_id = (SELECT MIN(c.id) FROM category c WHERE c.user_id = e.user_id AND c.name = e.category)
+WHERE e.category IS NOT NULL AND e.category <> '';
+ALTER TABLE expense DROP COLUMN category;
+CREATE INDEX IF NOT EXISTS idx_expense_user_category_date ON expense (user_id, category_id, date);
@@ -0,0 +1,5 @@
+-- The original API accepted expenses without a date. Keyset pagination orders and seeks on date and
+-- encodes it in the cursor, so it cannot be NULL; undated rows get the day of the upgrade, the same
+-- default a create request without a date gets. Runs before expense_summary is built so they are summarized.
+UPDATE expense SET date = CURRENT_DATE WHERE date IS NULL;
+ALTER TABLE expense ALTER COLUMN date SET NOT NULL;
@@ -0,0 +1,14 @@
+-- Per-user, per-month, per-category totals maintained by ExpenseSummaryService; category_id 0 is the
+-- uncategorized bucket. The table holds only derived data, so any earlier shape of it (created by
+-- ddl-auto) is dropped and rebuilt from the expense table.
+DROP TABLE IF EXISTS expense_summary;
+
+CREATE TABLE expense_summary (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT         NOT NULL,
+    month_start   DATE           NOT NULL,
+    category_id   BIGINT         NOT NULL,
+    total         NUMERIC(38, 2) NOT NULL,
+    expense_count BIGINT         NOT NULL,
+    CONSTRAINT uk_expense_summary_user_month_category UNIQUE (user_id, month_start, category_id)
+);
@@ -0,0 +1,14 @@
+-- Confirmation emails queued in the registering transaction and delivered by EmailOutboxDispatcher.
+-- It may already exist where a later version ran under ddl-auto: update.
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient       VARCHAR(255) NOT NULL,
+    token           VARCHAR(255) NOT NULL,
+    status          VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts        INTEGER      NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      TIMESTAMP(6) NOT NULL,
+    sent_at         TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
@@ -0,0 +1,35 @@
+-- Schema of the application before migrations were introduced, as Hibernate's ddl-auto created it.
+-- Existing databases are baselined at this version and skip it (spring.flyway.baseline-on-migrate);
+-- the V1.x migrations that follow bring them, and fresh databases, to the current schema.
+
+CREATE TABLE "user" (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    status   VARCHAR(255) CHECK (status IN ('PENDING', 'ACTIVE')),
+    CONSTRAINT uk_user_email UNIQUE (email)
+);
+
+CREATE TABLE category (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT       NOT NULL REFERENCES "user" (id),
+    name    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE expense (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT         NOT NULL REFERENCES "user" (id),
+    amount      NUMERIC(38, 2) NOT NULL,
+    description VARCHAR(255),
+    category    VARCHAR(255),
+    date        DATE
+);
+
+CREATE TABLE confirmation_token (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token      VARCHAR(255) NOT NULL,
+    user_id    BIGINT       NOT NULL REFERENCES "user" (id),
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_confirmation_token_token UNIQUE (token)
+);
@@ -0,0 +1,12 @@
+-- Indexes ddl-auto never created. expense.user_id needs none of its own: both expense indexes lead
+-- with user_id, which serves per-user lookups and the foreign key check on user deletes.
+
+-- Category list per user (CategoryRepository.findResponsesByUserId) and the user foreign key
+CREATE INDEX IF NOT EXISTS idx_category_user_id ON category (user_id);
+
+-- Confirmation tokens are looked up by token (unique index); expired ones can be found without a full scan
+CREATE INDEX IF NOT EXISTS idx_confirmation_token_expires_at ON confirmation_token (expires_at);
+CREATE INDEX IF NOT EXISTS idx_confirmation_token_user_id ON confirmation_token (user_id);
+
+-- Foreign key checks when a category is deleted (ExpenseRepository.clearCategory)
+CREATE INDEX IF NOT EXISTS idx_expense_category_id ON expense (category_id);
@@ -0,0 +1,6 @@
+-- Per-user counter bumped by every expense and category write; list endpoints derive their ETag from it.
+-- No foreign key, like expense_summary: rows are created lazily on a user's first write.
+CREATE TABLE user_data_version (
+    user_id      BIGINT NOT NULL PRIMARY KEY,
+    data_version BIGINT NOT NULL
+);
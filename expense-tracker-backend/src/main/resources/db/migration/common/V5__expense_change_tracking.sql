@@ -0,0 +1,15 @@
+-- Delta sync (GET /api/expenses/changes): every expense write stamps the row with the user's new data
+-- version, and deletes leave a tombstone, so a client can fetch what changed after its last (version, id).
+
+-- Constant default: existing rows get version 0 without a table rewrite on PostgreSQL 11+
+ALTER TABLE expense ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_expense_user_change_version ON expense (user_id, change_version, id);
+
+-- Keyed by the deleted expense's id: ids come from expense_seq and are never reused
+CREATE TABLE expense_tombstone (
+    expense_id     BIGINT       NOT NULL PRIMARY KEY,
+    user_id        BIGINT       NOT NULL,
+    change_version BIGINT       NOT NULL,
+    deleted_at     TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX idx_expense_tombstone_user_change_version ON expense_tombstone (user_id, change_version, expense_id);
@@ -0,0 +1,13 @@
+-- Responses to requests sent with an Idempotency-Key header, used when app.idempotency.store=jdbc.
+-- Rows are written in the same transaction as the expense they describe; the primary key is what
+-- stops two instances from both creating it.
+CREATE TABLE idempotency_record (
+    user_id         BIGINT       NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    response_body   TEXT         NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+-- Periodic purge of expired records
+CREATE INDEX idx_idempotency_record_expires_at ON idempotency_record (expires_at);
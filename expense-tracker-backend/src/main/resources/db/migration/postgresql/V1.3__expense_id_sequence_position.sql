@@ -0,0 +1,3 @@
+-- Hibernate's pooled optimizer hands out [value - 49, value], so on a database with existing expenses
+-- the sequence must sit at least 50 above the highest id.
+SELECT setval('expense_seq', (SELECT COALESCE(MAX(id), 0) + 51 FROM expense), false);
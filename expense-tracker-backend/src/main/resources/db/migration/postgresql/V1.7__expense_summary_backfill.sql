@@ -0,0 +1,5 @@
+-- Summarizes the expenses that existed before expense_summary did (every expense has a date by now).
+INSERT INTO expense_summary (user_id, month_start, category_id, total, expense_count)
+SELECT user_id, CAST(date_trunc('month', date) AS date), COALESCE(category_id, 0), SUM(amount), COUNT(*)
+FROM expense
+GROUP BY user_id, CAST(date_trunc('month', date) AS date), COALESCE(category_id, 0);
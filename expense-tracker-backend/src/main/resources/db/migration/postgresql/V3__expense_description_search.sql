@@ -0,0 +1,7 @@
+-- Full-text search over expense descriptions (PostgresExpenseSearchEngine). The vector is a stored
+-- generated column, so it can never go stale and needs no trigger; the GIN index serves @@ matches.
+ALTER TABLE expense
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('english', coalesce(description, ''))) STORED;
+
+CREATE INDEX idx_expense_search_vector ON expense USING gin (search_vector);
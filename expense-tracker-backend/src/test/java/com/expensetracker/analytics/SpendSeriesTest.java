@@ -0,0 +1,67 @@
+package com.expensetracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpendSeriesTest {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 29); // a Monday
+
+    @Test
+    void dailyTotals_shouldSumPerDayAndIgnoreRowsOutsideRange() {
+        SpendSeries series = new SpendSeries(2);
+        series.add(day(0), 1_000, 1);
+        series.add(day(0), 250, 2);
+        series.add(day(2), 500, 2);
+        series.add(day(9), 700, 2);
+
+        assertThat(series.dailyTotals(FROM.toEpochDay(), 3)).containsExactly(1_250, 0, 500);
+        assertThat(series.size()).isEqualTo(4);
+    }
+
+    @Test
+    void bucket_shouldAlignWeeksToMondayAndMonthsToFirstDay() {
+        long[] daily = new long[10]; // 2024-01-29 .. 2024-02-07
+        for (int i = 0; i < daily.length; i++) {
+            daily[i] = 100;
+        }
+
+        SpendSeries.Buckets weeks = SpendSeries.bucket(daily, FROM, SpendSeries.Period.WEEK);
+        assertThat(weeks.getStarts()).containsExactly(LocalDate.of(2024, 1, 29), LocalDate.of(2024, 2, 5));
+        assertThat(weeks.getTotals()).containsExactly(700, 300);
+
+        SpendSeries.Buckets months = SpendSeries.bucket(daily, FROM, SpendSeries.Period.MONTH);
+        assertThat(months.getStarts()).containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+        assertThat(months.getTotals()).containsExactly(300, 700);
+    }
+
+    @Test
+    void rollingAverage_shouldAverageTrailingWindowAndShortenAtStart() {
+        double[] averages = SpendSeries.rollingAverage(new long[]{300, 0, 600, 900}, 3);
+
+        assertThat(averages).containsExactly(300.0, 150.0, 300.0, 500.0);
+    }
+
+    @Test
+    void categoryStats_shouldReportNearestRankPercentilesPerCategoryRun() {
+        SpendSeries series = new SpendSeries(16);
+        series.add(day(0), 500, 0);
+        for (int amount = 1; amount <= 10; amount++) {
+            series.add(day(1), amount * 100L, 7);
+        }
+        List<String> rows = new ArrayList<>();
+
+        series.categoryStats(new double[]{0.5, 0.9, 0.99}, (categoryId, count, total, percentiles) ->
+                rows.add(categoryId + ":" + count + ":" + total + ":" + percentiles[0] + "/" + percentiles[1] + "/" + percentiles[2]));
+
+        assertThat(rows).containsExactly("0:1:500:500/500/500", "7:10:5500:500/900/1000");
+    }
+
+    private static int day(int offset) {
+        return (int) FROM.plusDays(offset).toEpochDay();
+    }
+}
@@ -0,0 +1,45 @@
+package com.expensetracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestQueryMetricsFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestQueryStatistics statistics = new RequestQueryStatistics();
+    private final MetricsConfig.RequestQueryMetricsFilter filter = new MetricsConfig.RequestQueryMetricsFilter(meterRegistry);
+
+    @Test
+    void doFilter_shouldRecordStatementsAndEntityLoadsPerRequestTaggedByUriTemplate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/expenses/7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            statistics.inspect("select * from expense where id=?");
+            statistics.inspect("select * from \"user\" where id=?");
+            statistics.onLoad(new Object(), 7L, new Object[0], new String[0], null);
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/expenses/{id}");
+        });
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.jdbc.statements")
+                .tag("method", "GET").tag("uri", "/api/expenses/{id}").summary();
+        DistributionSummary loads = meterRegistry.get("http.server.requests.entity.loads")
+                .tag("method", "GET").tag("uri", "/api/expenses/{id}").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2.0);
+        assertThat(loads.totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void inspect_shouldNotCountOutsideARequest() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/categories"), new MockHttpServletResponse(), (req, res) -> { });
+        statistics.inspect("select 1");
+
+        assertThat(meterRegistry.get("http.server.requests.jdbc.statements").tag("uri", "UNKNOWN").summary().totalAmount())
+                .isEqualTo(0.0);
+    }
+}
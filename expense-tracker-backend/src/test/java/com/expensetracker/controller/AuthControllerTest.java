@@ -1,5 +1,6 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.security.PasswordHashingUnavailableException;
 import com.expensetracker.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.mockito.Mockito.verify;
 
@@ -84,6 +86,19 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void login_shouldReturnServiceUnavailableWithRetryAfterWhenHashingIsSaturated() throws Exception {
+        var request = new UserLoginRequest("test@example.com", "password123");
+        Mockito.when(userService.login("test@example.com", "password123"))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing queue is full", null));
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     static class UserRegistrationRequest {
         public String email;
         public String password;
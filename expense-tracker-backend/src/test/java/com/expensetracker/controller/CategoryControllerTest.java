@@ -1,18 +1,24 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.dto.CategoryRequest;
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.mapper.CategoryMapperImpl;
 import com.expensetracker.model.Category;
 import com.expensetracker.model.User;
+import com.expensetracker.security.AuthenticatedUser;
 import com.expensetracker.service.CategoryService;
-import com.expensetracker.service.UserService;
+import com.expensetracker.service.DataVersionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,19 +26,22 @@ import java.util.Optional;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CategoryController.class)
+@Import(CategoryMapperImpl.class)
 class CategoryControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private CategoryService categoryService;
     @MockBean
-    private UserService userService;
+    private DataVersionService dataVersionService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,60 +54,92 @@ class CategoryControllerTest {
         category = Category.builder().id(1L).name("Food").user(user).build();
     }
 
+    private static RequestPostProcessor asUser(Long id, String email) {
+        AuthenticatedUser principal = new AuthenticatedUser(id, email);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
     @Test
-    @WithMockUser(username = "test@example.com", roles = {"USER"})
     void getCategories_shouldReturnCategoriesForUser() throws Exception {
-        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(categoryService.getCategoriesByUserId(1L)).thenReturn(List.of(category));
+        when(categoryService.getCategoriesByUserId(1L)).thenReturn(List.of(new CategoryResponse(1L, "Food")));
+        when(dataVersionService.etag(1L)).thenReturn("W/\"3\"");
 
-        mockMvc.perform(get("/api/categories"))
+        mockMvc.perform(get("/api/categories").with(asUser(1L, "test@example.com")))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Food"));
+                .andExpect(header().string("ETag", "W/\"3\""))
+                .andExpect(jsonPath("$[0].name").value("Food"))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+    }
+
+    @Test
+    void getCategories_shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+        when(dataVersionService.etag(1L)).thenReturn("W/\"3\"");
+
+        mockMvc.perform(get("/api/categories")
+                        .with(asUser(1L, "test@example.com"))
+                        .header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified());
+        verify(categoryService, never()).getCategoriesByUserId(any());
     }
 
     @Test
-    @WithMockUser(username = "test@example.com", roles = {"USER"})
     void createCategory_shouldCreateCategoryForUser() throws Exception {
-        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        Category req = Category.builder().name("Travel").build();
+        when(categoryService.createCategory(eq(1L), any(CategoryRequest.class)))
+                .thenReturn(Category.builder().id(9L).name("Travel").user(user).build());
 
         mockMvc.perform(post("/api/categories")
                         .with(csrf())
+                        .with(asUser(1L, "test@example.com"))
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(req)))
+                        .content(objectMapper.writeValueAsString(new CategoryRequest("Travel"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(9))
+                .andExpect(jsonPath("$.name").value("Travel"))
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        verify(categoryService).createCategory(1L, new CategoryRequest("Travel"));
+    }
+
+    @Test
+    void createCategory_shouldIgnoreClientSuppliedIdAndOwner() throws Exception {
+        when(categoryService.createCategory(eq(1L), any(CategoryRequest.class)))
+                .thenReturn(Category.builder().id(9L).name("Travel").user(user).build());
+
+        mockMvc.perform(post("/api/categories")
+                        .with(csrf())
+                        .with(asUser(1L, "test@example.com"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":5,\"name\":\"Travel\",\"user\":{\"id\":2}}"))
                 .andExpect(status().isOk());
 
-        verify(categoryService).createCategory(any(Category.class));
+        verify(categoryService).createCategory(1L, new CategoryRequest("Travel"));
     }
 
     @Test
-    @WithMockUser(username = "test@example.com", roles = {"USER"})
     void updateCategory_shouldUpdateCategoryForUser() throws Exception {
-        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
         when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(category));
         
-        Category updateReq = Category.builder().name("Updated Food").build();
+        CategoryRequest updateReq = new CategoryRequest("Updated Food");
 
         mockMvc.perform(put("/api/categories/1")
                         .with(csrf())
+                        .with(asUser(1L, "test@example.com"))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateReq)))
                 .andExpect(status().isOk());
 
-        verify(categoryService).updateCategory(eq(1L), any(Category.class));
+        verify(categoryService).updateCategory(1L, new CategoryRequest("Updated Food"));
     }
 
     @Test
-    @WithMockUser(username = "other@example.com", roles = {"USER"})
     void updateCategory_shouldForbidOtherUsersCategory() throws Exception {
-        User otherUser = User.builder().id(2L).email("other@example.com").status(User.Status.ACTIVE).build();
-        when(userService.findByEmail("other@example.com")).thenReturn(Optional.of(otherUser));
         when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(category));
 
-        Category updateReq = Category.builder().name("Updated Food").build();
+        CategoryRequest updateReq = new CategoryRequest("Updated Food");
 
         mockMvc.perform(put("/api/categories/1")
                         .with(csrf())
+                        .with(asUser(2L, "other@example.com"))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateReq)))
                 .andExpect(status().isForbidden());
@@ -107,27 +148,24 @@ class CategoryControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com", roles = {"USER"})
     void deleteCategory_shouldDeleteCategoryForUser() throws Exception {
-        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(user));
         when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(category));
 
         mockMvc.perform(delete("/api/categories/1")
-                        .with(csrf()))
+                        .with(csrf())
+                        .with(asUser(1L, "test@example.com")))
                 .andExpect(status().isOk());
 
         verify(categoryService).deleteCategory(1L);
     }
 
     @Test
-    @WithMockUser(username = "other@example.com", roles = {"USER"})
     void deleteCategory_shouldForbidOtherUsersCategory() throws Exception {
-        User otherUser = User.builder().id(2L).email("other@example.com").status(User.Status.ACTIVE).build();
-        when(userService.findByEmail("other@example.com")).thenReturn(Optional.of(otherUser));
         when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(category));
 
         mockMvc.perform(delete("/api/categories/1")
-                        .with(csrf()))
+                        .with(csrf())
+                        .with(asUser(2L, "other@example.com")))
                 .andExpect(status().isForbidden());
 
         verify(categoryService, never()).deleteCategory(any());
@@ -1,9 +1,23 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseAnalyticsResponse;
+import com.expensetracker.dto.ExpenseChanges;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.dto.ExpenseSummaryResponse;
+import com.expensetracker.dto.SearchPage;
+import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
 import com.expensetracker.model.User;
+import com.expensetracker.service.ExpenseAnalyticsService;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExpenseSummaryService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -14,6 +28,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -21,8 +36,14 @@ import java.security.Key;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,6 +55,10 @@ class ExpenseControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private ExpenseService expenseService;
+    @MockBean
+    private ExpenseSummaryService expenseSummaryService;
+    @MockBean
+    private ExpenseAnalyticsService expenseAnalyticsService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -55,40 +80,147 @@ class ExpenseControllerTest {
 
     @Test
     void createExpense_shouldReturnCreated() throws Exception {
-        Expense expense = Expense.builder()
+        ExpenseRequest request = ExpenseRequest.builder()
                 .amount(new BigDecimal("100.00"))
                 .description("Lunch")
-                .category("Food")
+                .categoryId(5L)
                 .date(LocalDate.now())
                 .build();
+        Mockito.when(expenseService.createExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class))).thenAnswer(invocation -> {
+            ExpenseRequest body = invocation.getArgument(1);
+            return Expense.builder().id(11L).user(user).amount(body.getAmount()).description(body.getDescription())
+                    .category(Category.builder().id(body.getCategoryId()).user(user).name("Food").build())
+                    .date(body.getDate()).build();
+        });
+        mockMvc.perform(post("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(11))
+                .andExpect(jsonPath("$.description").value("Lunch"))
+                .andExpect(jsonPath("$.categoryId").value(5))
+                .andExpect(jsonPath("$.category").value("Food"))
+                .andExpect(jsonPath("$.user").doesNotExist());
+    }
+
+    @Test
+    void createExpense_shouldRejectUnknownCategory() throws Exception {
+        Mockito.when(expenseService.createExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class)))
+                .thenThrow(new IllegalArgumentException("Unknown category 99"));
+        mockMvc.perform(post("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":5.00,\"categoryId\":99}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createExpense_shouldReplayRetryWithSameIdempotencyKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = "{\"amount\":12.50,\"description\":\"Taxi\",\"date\":\"2024-03-01\"}";
+        Mockito.when(expenseService.createExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class)))
+                .thenReturn(Expense.builder().id(21L).user(user).amount(new BigDecimal("12.50"))
+                        .description("Taxi").date(LocalDate.of(2024, 3, 1)).build());
+        mockMvc.perform(post("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andExpect(jsonPath("$.id").value(21));
+        mockMvc.perform(post("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(21))
+                .andExpect(jsonPath("$.description").value("Taxi"));
+        Mockito.verify(expenseService, Mockito.times(1)).createExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class));
+
         mockMvc.perform(post("/api/expenses")
                 .header("Authorization", "Bearer " + jwt)
+                .header("Idempotency-Key", key)
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(expense)))
-                .andExpect(status().isCreated());
+                .content("{\"amount\":99.00,\"description\":\"Taxi\",\"date\":\"2024-03-01\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void exportExpenses_shouldStreamCsvOnAsyncDispatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/expenses/export")
+                .param("format", "csv")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The body is written on the async dispatch, which the stateless JWT filter does not see
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("expenses.csv")))
+                .andExpect(content().string(startsWith("id,date,amount,category,description\n")));
     }
 
     @Test
     void getExpenses_shouldReturnList() throws Exception {
-        List<Expense> expenses = List.of(
-                Expense.builder().amount(new BigDecimal("50.00")).description("Coffee").category("Food").date(LocalDate.now()).build()
+        List<ExpenseResponse> expenses = List.of(
+                ExpenseResponse.builder().id(1L).amount(new BigDecimal("50.00")).description("Coffee").categoryId(5L).category("Food").date(LocalDate.now()).build()
         );
         Mockito.when(expenseService.getExpensesByUserId(1L)).thenReturn(expenses);
         mockMvc.perform(get("/api/expenses")
                 .header("Authorization", "Bearer " + jwt))
                 .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
                 .andExpect(jsonPath("$[0].description").value("Coffee"));
     }
 
+    @Test
+    void getExpenses_shouldServeSmileWhenAccepted() throws Exception {
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        Mockito.when(expenseService.getExpensesByUserId(1L)).thenReturn(List.of(
+                ExpenseResponse.builder().id(1L).amount(new BigDecimal("50.00")).description("Coffee").date(date).build()));
+        byte[] body = mockMvc.perform(get("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode expense = new ObjectMapper(new SmileFactory()).readTree(body).get(0);
+        assertThat(expense.get("description").asText()).isEqualTo("Coffee");
+        // Same date format as the JSON encoding
+        assertThat(expense.get("date").asText()).isEqualTo("2024-03-01");
+    }
+
+    @Test
+    void getExpenses_shouldReturnNotModifiedWithoutQueryingForCurrentEtag() throws Exception {
+        Mockito.when(expenseService.getExpensesByUserId(1L)).thenReturn(List.of());
+        String etag = mockMvc.perform(get("/api/expenses")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/expenses")
+                .header("Authorization", "Bearer " + jwt)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        Mockito.verify(expenseService, Mockito.times(1)).getExpensesByUserId(1L);
+    }
+
     @Test
     void updateExpense_shouldReturnOk() throws Exception {
-        Expense updated = Expense.builder()
+        ExpenseRequest updated = ExpenseRequest.builder()
                 .amount(new BigDecimal("120.00"))
                 .description("Dinner")
-                .category("Food")
+                .categoryId(5L)
                 .date(LocalDate.now())
                 .build();
-        Mockito.when(expenseService.updateExpense(Mockito.eq(1L), Mockito.any(Expense.class), Mockito.eq(1L))).thenReturn(true);
+        Mockito.when(expenseService.updateExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class), Mockito.eq(1L))).thenReturn(true);
         mockMvc.perform(put("/api/expenses/1")
                 .header("Authorization", "Bearer " + jwt)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -98,8 +230,8 @@ class ExpenseControllerTest {
 
     @Test
     void updateExpense_shouldReturnNotFoundIfNotOwned() throws Exception {
-        Expense updated = Expense.builder().amount(new BigDecimal("120.00")).build();
-        Mockito.when(expenseService.updateExpense(Mockito.eq(1L), Mockito.any(Expense.class), Mockito.eq(1L))).thenReturn(false);
+        ExpenseRequest updated = ExpenseRequest.builder().amount(new BigDecimal("120.00")).build();
+        Mockito.when(expenseService.updateExpense(Mockito.eq(1L), Mockito.any(ExpenseRequest.class), Mockito.eq(1L))).thenReturn(false);
         mockMvc.perform(put("/api/expenses/1")
                 .header("Authorization", "Bearer " + jwt)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -122,4 +254,165 @@ class ExpenseControllerTest {
                 .header("Authorization", "Bearer " + jwt))
                 .andExpect(status().isNotFound());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getExpensePage_shouldReturnItemsAndCursor() throws Exception {
+        List<ExpenseResponse> expenses = List.of(
+                ExpenseResponse.builder().id(7L).amount(new BigDecimal("50.00")).description("Coffee").categoryId(5L).category("Food").date(LocalDate.now()).build()
+        );
+        Mockito.when(expenseService.getExpensePage(Mockito.eq(1L), Mockito.argThat((ExpenseFilter f) -> Long.valueOf(5L).equals(f.getCategoryId())),
+                        Mockito.isNull(), Mockito.eq(20)))
+                .thenReturn(new CursorPage<>(expenses, "next-token"));
+        mockMvc.perform(get("/api/expenses/page")
+                .param("limit", "20")
+                .param("categoryId", "5")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].description").value("Coffee"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void getExpensePage_shouldRejectMalformedCursor() throws Exception {
+        Mockito.when(expenseService.getExpensePage(Mockito.eq(1L), Mockito.any(), Mockito.eq("garbage"), Mockito.anyInt()))
+                .thenThrow(new IllegalArgumentException("Malformed cursor"));
+        mockMvc.perform(get("/api/expenses/page")
+                .param("cursor", "garbage")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchExpenses_shouldPassQueryFiltersAndPaging() throws Exception {
+        List<ExpenseResponse> hits = List.of(
+                ExpenseResponse.builder().id(4L).amount(new BigDecimal("18.00")).description("Uber ride").date(LocalDate.of(2024, 3, 9)).build());
+        Mockito.when(expenseService.search(Mockito.eq(1L), Mockito.eq("uber ride"),
+                        Mockito.argThat((ExpenseFilter f) -> LocalDate.of(2024, 3, 1).equals(f.getFrom())), Mockito.eq(2), Mockito.eq(10)))
+                .thenReturn(new SearchPage<>(hits, 2, 3));
+        mockMvc.perform(get("/api/expenses/search")
+                .param("q", "uber ride")
+                .param("from", "2024-03-01")
+                .param("page", "2")
+                .param("size", "10")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].description").value("Uber ride"))
+                .andExpect(jsonPath("$.page").value(2))
+                .andExpect(jsonPath("$.nextPage").value(3));
+    }
+
+    @Test
+    void searchExpenses_shouldRejectQueryWithoutWords() throws Exception {
+        Mockito.when(expenseService.search(Mockito.eq(1L), Mockito.eq("!!"), Mockito.any(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenThrow(new IllegalArgumentException("Search query has no words"));
+        mockMvc.perform(get("/api/expenses/search")
+                .param("q", "!!")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_shouldReturnUpsertsTombstonesAndCursor() throws Exception {
+        ExpenseResponse written = ExpenseResponse.builder().id(12L).amount(new BigDecimal("9.50")).description("Taxi").date(LocalDate.of(2024, 3, 2)).build();
+        Mockito.when(expenseService.getChanges(1L, "abc", 100))
+                .thenReturn(new ExpenseChanges(List.of(written), List.of(30L), "def", false));
+        mockMvc.perform(get("/api/expenses/changes")
+                .param("since", "abc")
+                .param("limit", "100")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserted[0].id").value(12))
+                .andExpect(jsonPath("$.deleted[0]").value(30))
+                .andExpect(jsonPath("$.cursor").value("def"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void getChanges_shouldRejectMalformedCursor() throws Exception {
+        Mockito.when(expenseService.getChanges(Mockito.eq(1L), Mockito.eq("nope"), Mockito.anyInt()))
+                .thenThrow(new IllegalArgumentException("Malformed cursor"));
+        mockMvc.perform(get("/api/expenses/changes")
+                .param("since", "nope")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getSummary_shouldReturnMonthlyCategoryTotals() throws Exception {
+        Mockito.when(expenseSummaryService.getSummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 3))).thenReturn(List.of(
+                new ExpenseSummaryResponse(YearMonth.of(2024, 2), 5L, "Food", new BigDecimal("42.50"), 3)));
+        mockMvc.perform(get("/api/expenses/summary")
+                .param("from", "2024-01")
+                .param("to", "2024-03")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].month").value("2024-02"))
+                .andExpect(jsonPath("$[0].categoryId").value(5))
+                .andExpect(jsonPath("$[0].category").value("Food"))
+                .andExpect(jsonPath("$[0].total").value(42.50))
+                .andExpect(jsonPath("$[0].count").value(3));
+    }
+
+    @Test
+    void getAnalytics_shouldReturnSeriesForRequestedRange() throws Exception {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 2);
+        Mockito.when(expenseAnalyticsService.analyze(1L, from, to, 2)).thenReturn(new ExpenseAnalyticsResponse(from, to, 2,
+                List.of(new ExpenseAnalyticsResponse.Point(from, Money.ofMinor(1000)),
+                        new ExpenseAnalyticsResponse.Point(to, Money.ZERO)),
+                List.of(new ExpenseAnalyticsResponse.Point(LocalDate.of(2024, 2, 26), Money.ofMinor(1000))),
+                List.of(new ExpenseAnalyticsResponse.Point(from, Money.ofMinor(1000))),
+                List.of(new ExpenseAnalyticsResponse.Point(from, Money.ofMinor(1000)),
+                        new ExpenseAnalyticsResponse.Point(to, Money.ofMinor(500))),
+                List.of(new ExpenseAnalyticsResponse.CategoryStats(5L, "Food", 1, Money.ofMinor(1000),
+                        Money.ofMinor(1000), Money.ofMinor(1000), Money.ofMinor(1000)))));
+        mockMvc.perform(get("/api/expenses/analytics")
+                .param("from", "2024-03-01")
+                .param("to", "2024-03-02")
+                .param("window", "2")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.daily[0].start").value("2024-03-01"))
+                .andExpect(jsonPath("$.rollingAverage[1].value").value(5.00))
+                .andExpect(jsonPath("$.categories[0].p90").value(10.00));
+    }
+
+    @Test
+    void getAnalytics_shouldRejectInvalidRange() throws Exception {
+        Mockito.when(expenseAnalyticsService.analyze(Mockito.eq(1L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenThrow(new IllegalArgumentException("Range must cover 1 to 1830 days"));
+        mockMvc.perform(get("/api/expenses/analytics")
+                .param("from", "2024-03-02")
+                .param("to", "2024-03-01")
+                .header("Authorization", "Bearer " + jwt))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getExpenses_shouldUseUserIdClaimFromJwt() throws Exception {
+        String secret = "mydevsupersecretkeymydevsupersecretkey123456";
+        String otherJwt = Jwts.builder()
+                .setSubject("other@example.com")
+                .claim("userId", 7L)
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        Mockito.when(expenseService.getExpensesByUserId(7L)).thenReturn(List.of(
+                ExpenseResponse.builder().id(2L).amount(new BigDecimal("9.99")).description("Book").date(LocalDate.now()).build()));
+        mockMvc.perform(get("/api/expenses")
+                .header("Authorization", "Bearer " + otherJwt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("Book"));
+    }
+
+    @Test
+    void getExpenses_shouldRejectJwtWithoutUserIdClaim() throws Exception {
+        String secret = "mydevsupersecretkeymydevsupersecretkey123456";
+        String noUserIdJwt = Jwts.builder()
+                .setSubject("test@example.com")
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        mockMvc.perform(get("/api/expenses")
+                .header("Authorization", "Bearer " + noUserIdJwt))
+                .andExpect(status().isUnauthorized());
+    }
+}
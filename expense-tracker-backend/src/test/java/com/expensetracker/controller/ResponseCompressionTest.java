@@ -0,0 +1,79 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.service.ExpenseService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compression is applied by the embedded Tomcat, which MockMvc bypasses, so this goes through a real port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.secret=mydevsupersecretkeymydevsupersecretkey123456",
+        // As in the main application.yml, which the test configuration replaces
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json,application/x-jackson-smile,application/cbor,application/x-ndjson,text/csv",
+        "server.compression.min-response-size=2KB"
+})
+class ResponseCompressionTest {
+    @LocalServerPort
+    private int port;
+    @MockBean
+    private ExpenseService expenseService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getExpenses_shouldGzipVersionedListing() throws Exception {
+        List<ExpenseResponse> expenses = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> ExpenseResponse.builder().id(id).amount(new BigDecimal("12.50"))
+                        .description("Lunch with the team").date(LocalDate.of(2024, 3, 1)).build())
+                .toList();
+        Mockito.when(expenseService.getExpensesByUserId(1L)).thenReturn(expenses);
+        String jwt = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim("userId", 1L)
+                .signWith(Keys.hmacShaKeyFor("mydevsupersecretkeymydevsupersecretkey123456".getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Unlike most clients, java.net.http does not decompress transparently
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/expenses"))
+                        .header("Authorization", "Bearer " + jwt)
+                        .header("Accept", "application/json")
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/\""));
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            JsonNode list = objectMapper.readTree(body);
+            assertThat(list.size()).isEqualTo(100);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.expensetracker.idempotency;
+
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ExpenseRequest request = ExpenseRequest.builder()
+            .amount(new BigDecimal("12.50")).description("Lunch").date(LocalDate.of(2024, 3, 1)).build();
+    private final AtomicInteger created = new AtomicInteger();
+
+    private IdempotencyService service(IdempotencyStore store) {
+        return new IdempotencyService(store, objectMapper, transactionManager, Duration.ofSeconds(5));
+    }
+
+    private ExpenseResponse create() {
+        return ExpenseResponse.builder().id(100L + created.incrementAndGet()).amount(new BigDecimal("12.50"))
+                .description("Lunch").date(LocalDate.of(2024, 3, 1)).build();
+    }
+
+    @Test
+    void execute_shouldReplayStoredResponseWithoutRunningTheActionAgain() {
+        IdempotencyService service = service(new InMemoryIdempotencyStore(Duration.ofHours(1), 100));
+
+        IdempotencyService.Outcome<ExpenseResponse> first = service.execute(1L, "k1", request, ExpenseResponse.class, this::create);
+        IdempotencyService.Outcome<ExpenseResponse> retry = service.execute(1L, "k1", request, ExpenseResponse.class, this::create);
+
+        assertThat(created).hasValue(1);
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getValue()).isEqualTo(first.getValue());
+        // Keys are per user
+        service.execute(2L, "k1", request, ExpenseResponse.class, this::create);
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void execute_shouldRejectKeyReusedForDifferentRequest() {
+        IdempotencyService service = service(new InMemoryIdempotencyStore(Duration.ofHours(1), 100));
+        service.execute(1L, "k1", request, ExpenseResponse.class, this::create);
+        ExpenseRequest other = ExpenseRequest.builder().amount(new BigDecimal("99.00")).build();
+
+        assertThatThrownBy(() -> service.execute(1L, "k1", other, ExpenseResponse.class, this::create))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_shouldCoalesceConcurrentDuplicatesOntoTheOriginal() throws Exception {
+        IdempotencyService service = service(new InMemoryIdempotencyStore(Duration.ofHours(1), 100));
+        CountDownLatch originalStarted = new CountDownLatch(1);
+        CountDownLatch releaseOriginal = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Outcome<ExpenseResponse>> original = CompletableFuture.supplyAsync(() ->
+                service.execute(1L, "k1", request, ExpenseResponse.class, () -> {
+                    originalStarted.countDown();
+                    try {
+                        releaseOriginal.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return create();
+                }));
+        assertThat(originalStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<IdempotencyService.Outcome<ExpenseResponse>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute(1L, "k1", request, ExpenseResponse.class, this::create));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        releaseOriginal.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getValue()).isEqualTo(original.get(5, TimeUnit.SECONDS).getValue());
+        assertThat(duplicate.get().isReplayed()).isTrue();
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void execute_shouldReplayWinnerWhenAnotherInstanceStoredTheKeyFirst() {
+        ExpenseResponse winner = ExpenseResponse.builder().id(7L).amount(new BigDecimal("12.50")).build();
+        AtomicReference<StoredResponse> committedElsewhere = new AtomicReference<>();
+        IdempotencyStore store = new IdempotencyStore() {
+            @Override
+            public Optional<StoredResponse> find(Long userId, String key) {
+                return Optional.ofNullable(committedElsewhere.get());
+            }
+
+            @Override
+            public void save(Long userId, String key, StoredResponse response) {
+                try {
+                    committedElsewhere.set(new StoredResponse(response.getRequestHash(), objectMapper.writeValueAsString(winner)));
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+                throw new DuplicateKeyException("duplicate key");
+            }
+        };
+
+        IdempotencyService.Outcome<ExpenseResponse> outcome = service(store)
+                .execute(1L, "k1", request, ExpenseResponse.class, this::create);
+
+        assertThat(outcome.isReplayed()).isTrue();
+        assertThat(outcome.getValue().getId()).isEqualTo(7L);
+    }
+}
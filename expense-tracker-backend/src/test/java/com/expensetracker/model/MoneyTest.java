@@ -0,0 +1,41 @@
+package com.expensetracker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_shouldConvertExactlyInBothDirections() {
+        assertThat(Money.toMinor(new BigDecimal("12.5"))).isEqualTo(1250L);
+        assertThat(Money.toMinor(new BigDecimal("-0.01"))).isEqualTo(-1L);
+        assertThat(Money.toMinor(new BigDecimal("3.000"))).isEqualTo(300L);
+        assertThat(Money.of(new BigDecimal("12.50")).toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(Money.of(new BigDecimal("7"))).isEqualTo(Money.ofMinor(700));
+    }
+
+    @Test
+    void of_shouldRejectSubCentAmountsAndOverflowInsteadOfRounding() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.005"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e17"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void json_shouldRoundTripAsExactDecimalNumber() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Money.ofMinor(1999))).isEqualTo("19.99");
+        assertThat(objectMapper.readValue("19.99", Money.class)).isEqualTo(Money.ofMinor(1999));
+    }
+
+    @Test
+    void compareTo_shouldOrderByAmount() {
+        assertThat(Money.ofMinor(-5)).isLessThan(Money.ZERO);
+        assertThat(Money.ofMinor(100).plus(Money.ofMinor(250))).isEqualByComparingTo(Money.ofMinor(350));
+    }
+}
@@ -0,0 +1,72 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.model.User;
+import com.expensetracker.security.UserCredentials;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserRepositoryCacheTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache usersCache() {
+        return cacheManager.getCache(CacheConfig.USERS);
+    }
+
+    @Test
+    void findCredentialsByEmail_shouldCacheSnapshotAndEvictOnSave() {
+        String email = "cached-user@example.com";
+        User saved = userRepository.save(User.builder()
+                .email(email)
+                .password("encoded")
+                .status(User.Status.PENDING)
+                .build());
+        assertThat(usersCache().get(email)).isNull();
+
+        userRepository.findCredentialsByEmail(email);
+        assertThat(usersCache().get(email).get()).isInstanceOf(UserCredentials.class);
+        // Entity lookups are not cached, so every caller gets its own instance
+        assertThat(userRepository.findByEmail(email).get()).isNotSameAs(userRepository.findByEmail(email).get());
+
+        saved.setStatus(User.Status.ACTIVE);
+        userRepository.save(saved);
+        assertThat(usersCache().get(email)).isNull();
+        assertThat(userRepository.findCredentialsByEmail(email)).get()
+                .extracting(UserCredentials::getStatus)
+                .isEqualTo(User.Status.ACTIVE);
+    }
+
+    @Test
+    void findCredentialsByEmail_shouldNotCacheUnknownEmail() {
+        assertThat(userRepository.findCredentialsByEmail("nobody@example.com")).isEmpty();
+        assertThat(usersCache().get("nobody@example.com")).isNull();
+    }
+
+    @Test
+    void reloadCredentialsByEmail_shouldReplaceSnapshotPutBackAfterEviction() {
+        String email = "confirmed-user@example.com";
+        User saved = userRepository.save(User.builder()
+                .email(email)
+                .password("encoded")
+                .status(User.Status.ACTIVE)
+                .build());
+        // A login that read the pending row before the confirmation committed
+        usersCache().put(email, new UserCredentials(saved.getId(), email, "encoded", User.Status.PENDING));
+
+        assertThat(userRepository.reloadCredentialsByEmail(email)).get()
+                .extracting(UserCredentials::getStatus)
+                .isEqualTo(User.Status.ACTIVE);
+        assertThat(userRepository.findCredentialsByEmail(email)).get()
+                .extracting(UserCredentials::getStatus)
+                .isEqualTo(User.Status.ACTIVE);
+    }
+}
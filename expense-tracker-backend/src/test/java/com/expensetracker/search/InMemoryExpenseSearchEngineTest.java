@@ -0,0 +1,86 @@
+package com.expensetracker.search;
+
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class InMemoryExpenseSearchEngineTest {
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    private InMemoryExpenseSearchEngine engine;
+    private ExpenseResponse uberRide;
+    private ExpenseResponse uberEats;
+    private ExpenseResponse busRide;
+    private ExpenseResponse rent;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engine = new InMemoryExpenseSearchEngine(expenseRepository, 100);
+        uberRide = expense(1L, "Uber ride downtown", LocalDate.of(2024, 3, 9), 5L);
+        uberEats = expense(2L, "Uber Eats dinner", LocalDate.of(2024, 3, 12), 6L);
+        busRide = expense(3L, "Bus ride", LocalDate.of(2024, 2, 1), 5L);
+        rent = expense(4L, "Monthly rent", LocalDate.of(2024, 3, 1), null);
+        when(expenseRepository.findResponsesByUserId(1L)).thenReturn(List.of(uberEats, uberRide, rent, busRide));
+    }
+
+    @Test
+    void search_shouldRankDocumentsMatchingMoreTermsFirst() {
+        List<ExpenseResponse> hits = engine.search(1L, List.of("uber", "ride"), null, 0, 10);
+
+        assertThat(hits).first().isEqualTo(uberRide);
+        assertThat(hits).containsExactlyInAnyOrder(uberRide, uberEats, busRide);
+    }
+
+    @Test
+    void search_shouldMatchTermsAsPrefixes() {
+        assertThat(engine.search(1L, List.of("month"), null, 0, 10)).containsExactly(rent);
+    }
+
+    @Test
+    void search_shouldApplyFiltersAndPaging() {
+        ExpenseFilter march = ExpenseFilter.builder().from(LocalDate.of(2024, 3, 1)).categoryId(5L).build();
+        assertThat(engine.search(1L, List.of("ride"), march, 0, 10)).containsExactly(uberRide);
+
+        // The shorter description ranks higher for the same match
+        assertThat(engine.search(1L, List.of("ride"), null, 0, 1)).containsExactly(busRide);
+        assertThat(engine.search(1L, List.of("ride"), null, 1, 1)).containsExactly(uberRide);
+    }
+
+    @Test
+    void search_shouldReuseIndexUntilExpensesChange() {
+        engine.search(1L, List.of("uber"), null, 0, 10);
+        engine.search(1L, List.of("rent"), null, 0, 10);
+        verify(expenseRepository, times(1)).findResponsesByUserId(1L);
+
+        engine.onExpensesChanged(new ExpensesChangedEvent(1L));
+        when(expenseRepository.findResponsesByUserId(1L)).thenReturn(List.of(rent));
+
+        assertThat(engine.search(1L, List.of("uber"), null, 0, 10)).isEmpty();
+        verify(expenseRepository, times(2)).findResponsesByUserId(1L);
+    }
+
+    @Test
+    void searchTerms_shouldLowerCaseDeduplicateAndDropOperators() {
+        assertThat(SearchTerms.parse("Uber & RIDE | uber:* (March)")).containsExactly("uber", "ride", "march");
+        assertThat(PostgresExpenseSearchEngine.toTsQuery(List.of("uber", "ride"))).isEqualTo("uber:* | ride:*");
+    }
+
+    private static ExpenseResponse expense(Long id, String description, LocalDate date, Long categoryId) {
+        return ExpenseResponse.builder().id(id).amount(new BigDecimal("10.00")).description(description)
+                .categoryId(categoryId).date(date).build();
+    }
+}
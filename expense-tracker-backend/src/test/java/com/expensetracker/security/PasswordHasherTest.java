@@ -0,0 +1,83 @@
+package com.expensetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_shouldRoundTripAndRecordHashTime() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 2, 4, Duration.ofSeconds(5));
+
+        String hash = hasher.encode("secret");
+
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void matches_shouldFailFastWhenQueueIsFull() throws InterruptedException {
+        hasher = new PasswordHasher(blockingEncoder(), meterRegistry, 1, 1, Duration.ofSeconds(30));
+        // One call occupies the only thread, the next one fills the queue
+        CompletableFuture.runAsync(() -> hasher.matches("a", "hash"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> hasher.matches("b", "hash"));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> hasher.matches("c", "hash")).isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(meterRegistry.get("auth.password.hash.rejected").tag("reason", "queue_full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void matches_shouldFailWhenWaitExceedsTimeout() {
+        hasher = new PasswordHasher(blockingEncoder(), meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> hasher.matches("a", "hash")).isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(meterRegistry.get("auth.password.hash.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue").gauge().value() != depth) {
+            assertThat(System.nanoTime()).as("queue depth %d reached in time", depth).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private BCryptPasswordEncoder blockingEncoder() {
+        BCryptPasswordEncoder encoder = mock(BCryptPasswordEncoder.class);
+        when(encoder.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        return encoder;
+    }
+}
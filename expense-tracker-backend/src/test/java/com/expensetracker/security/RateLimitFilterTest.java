@@ -0,0 +1,102 @@
+package com.expensetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 2 per second with a burst of 3; logins 1 per 10 seconds with a burst of 2
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter<>(2, 3, 100, nanos::get),
+            new RateLimiter<>(0.1, 2, 100, nanos::get),
+            meterRegistry);
+    private final AtomicInteger passed = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> passed.incrementAndGet());
+        return response;
+    }
+
+    private MockHttpServletResponse sendAs(long userId) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, "user" + userId + "@example.com"), null, List.of()));
+        try {
+            return send(new MockHttpServletRequest("GET", "/api/expenses"));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private MockHttpServletResponse login(String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", RateLimitFilter.LOGIN_PATH);
+        request.setRemoteAddr(address);
+        return send(request);
+    }
+
+    @Test
+    void doFilter_shouldRejectUserOverBurstWithRetryAfterUntilRefilled() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(sendAs(1L).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = sendAs(1L);
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(passed).hasValue(3);
+        // Another user has its own bucket
+        assertThat(sendAs(2L).getStatus()).isEqualTo(200);
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(sendAs(1L).getStatus()).isEqualTo(200);
+        assertThat(sendAs(1L).getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get("http.server.requests.rate.limited").tag("limit", "user").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void doFilter_shouldLimitLoginPerAddressAndPassOtherAnonymousRequests() throws Exception {
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = login("10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(login("10.0.0.2").getStatus()).isEqualTo(200);
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(new MockHttpServletRequest("POST", "/api/auth/register")).getStatus()).isEqualTo(200);
+        }
+        assertThat(meterRegistry.get("http.server.requests.rate.limited").tag("limit", "login").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void doFilter_shouldChargeAuthenticatedLoginToAddressBucket() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(1L, "user1@example.com"), null, List.of()));
+
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.get("http.server.requests.rate.limited").tag("limit", "login").counter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.dto.CategoryRequest;
+import com.expensetracker.dto.CategoryResponse;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class CategoryServiceCacheTest {
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private DataVersionService dataVersionService;
+    @Autowired
+    private CacheManager cacheManager;
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void getCategoriesByUserId_shouldServeRepeatReadsFromCacheUntilAWrite() {
+        User user = User.builder().id(99L).email("cache@example.com").build();
+        Category food = Category.builder().id(5L).user(user).name("Food").build();
+        CategoryResponse foodResponse = new CategoryResponse(5L, "Food");
+        when(categoryRepository.findResponsesByUserId(99L)).thenReturn(List.of(foodResponse));
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(food));
+
+        categoryService.getCategoriesByUserId(99L);
+        categoryService.getCategoriesByUserId(99L);
+        verify(categoryRepository, times(1)).findResponsesByUserId(99L);
+
+        categoryService.updateCategory(5L, new CategoryRequest("Groceries"));
+        assertThat(categoryService.getCategoriesByUserId(99L)).containsExactly(foodResponse);
+        verify(categoryRepository, times(2)).findResponsesByUserId(99L);
+    }
+
+    @Test
+    void getCategoriesByUserId_shouldNotServeListCachedAfterTheEvictionOfAWrite() {
+        User user = User.builder().id(98L).email("race@example.com").build();
+        Category food = Category.builder().id(6L).user(user).name("Food").build();
+        CategoryResponse foodResponse = new CategoryResponse(6L, "Food");
+        CategoryResponse groceriesResponse = new CategoryResponse(6L, "Groceries");
+        when(categoryRepository.findById(6L)).thenReturn(Optional.of(food));
+        long before = dataVersionService.current(98L);
+
+        categoryService.updateCategory(6L, new CategoryRequest("Groceries"));
+        // A reader that loaded the list before the rename committed puts it after the eviction
+        cacheManager.getCache(CacheConfig.CATEGORIES).put(98L, new CacheConfig.Versioned<>(before, List.of(foodResponse)));
+        when(categoryRepository.findResponsesByUserId(98L)).thenReturn(List.of(groceriesResponse));
+
+        assertThat(categoryService.getCategoriesByUserId(98L)).containsExactly(groceriesResponse);
+        assertThat(categoryService.getCategoriesByUserId(98L)).containsExactly(groceriesResponse);
+        verify(categoryRepository, times(1)).findResponsesByUserId(98L);
+    }
+}
@@ -1,16 +1,27 @@
 package com.expensetracker.service;
 
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.dto.CategoryRequest;
+import com.expensetracker.dto.CategoryResponse;
 import com.expensetracker.model.Category;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.CategoryRepository;
+import com.expensetracker.repository.ExpenseRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -18,6 +29,18 @@ import static org.mockito.Mockito.*;
 class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private ExpenseRepository expenseRepository;
+    @Mock
+    private ExpenseSummaryService summaryService;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache categoriesCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private CategoryService categoryService;
 
@@ -26,26 +49,119 @@ class CategoryServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(cacheManager.getCache(CacheConfig.CATEGORIES)).thenReturn(categoriesCache);
         user = User.builder().id(1L).email("test@example.com").status(User.Status.ACTIVE).build();
     }
 
     @Test
-    void createCategory_shouldSaveCategory() {
-        Category category = Category.builder().user(user).name("Food").build();
-        categoryService.createCategory(category);
+    void createCategory_shouldSaveNewCategoryForUser() {
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Category created = categoryService.createCategory(1L, new CategoryRequest("Food"));
+
         ArgumentCaptor<Category> captor = ArgumentCaptor.forClass(Category.class);
         verify(categoryRepository).save(captor.capture());
-        assertThat(captor.getValue().getUser()).isEqualTo(user);
+        assertThat(created).isSameAs(captor.getValue());
+        assertThat(captor.getValue().getId()).isNull();
+        assertThat(captor.getValue().getUser().getId()).isEqualTo(1L);
         assertThat(captor.getValue().getName()).isEqualTo("Food");
+        verify(dataVersionService).bump(1L);
+        verify(categoriesCache).evict(1L);
+    }
+
+    @Test
+    void updateCategory_shouldRenameRestampExpensesAndEvictOwnersCache() {
+        Category existing = Category.builder().id(3L).user(user).name("Food").build();
+        when(categoryRepository.findById(3L)).thenReturn(Optional.of(existing));
+        when(dataVersionService.bump(1L)).thenReturn(9L);
+
+        categoryService.updateCategory(3L, new CategoryRequest("Groceries"));
+
+        assertThat(existing.getName()).isEqualTo("Groceries");
+        verify(categoryRepository).save(existing);
+        verify(expenseRepository).restampCategory(3L, 9L);
+        verify(categoriesCache).evict(1L);
+    }
+
+    @Test
+    void deleteCategory_shouldUncategorizeExpensesThenDeleteAndEvictOwnersCache() {
+        Category existing = Category.builder().id(3L).user(user).name("Food").build();
+        when(categoryRepository.findById(3L)).thenReturn(Optional.of(existing));
+        when(dataVersionService.bump(1L)).thenReturn(9L);
+
+        categoryService.deleteCategory(3L);
+
+        InOrder inOrder = inOrder(expenseRepository, summaryService, categoryRepository);
+        inOrder.verify(expenseRepository).clearCategory(3L, 9L);
+        inOrder.verify(summaryService).recordCategoryRemoved(3L);
+        inOrder.verify(categoryRepository).delete(existing);
+        verify(categoriesCache).evict(1L);
+    }
+
+    @Test
+    void deleteCategory_shouldIgnoreMissingCategory() {
+        when(categoryRepository.findById(3L)).thenReturn(Optional.empty());
+
+        categoryService.deleteCategory(3L);
+
+        verify(categoryRepository, never()).delete(any());
+        verifyNoInteractions(expenseRepository, summaryService, dataVersionService, categoriesCache);
+    }
+
+    @Test
+    void resolveCategoryIds_shouldReuseOldestMatchAndCreateMissingNames() {
+        when(categoryRepository.findResponsesByUserId(1L)).thenReturn(List.of(
+                new CategoryResponse(4L, "Food"), new CategoryResponse(6L, "Food"), new CategoryResponse(8L, "Rent")));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> {
+            Category saved = invocation.getArgument(0);
+            saved.setId(12L);
+            return saved;
+        });
+
+        Map<String, Long> ids = categoryService.resolveCategoryIds(1L, Set.of("Food", "Travel"));
+
+        assertThat(ids).containsExactlyInAnyOrderEntriesOf(Map.of("Food", 4L, "Travel", 12L));
+        ArgumentCaptor<Category> captor = ArgumentCaptor.forClass(Category.class);
+        verify(categoryRepository).save(captor.capture());
+        assertThat(captor.getValue().getName()).isEqualTo("Travel");
+        assertThat(captor.getValue().getUser().getId()).isEqualTo(1L);
+        verify(categoriesCache).evict(1L);
     }
 
     @Test
     void getCategoriesByUserId_shouldReturnCategories() {
-        when(categoryRepository.findByUserId(1L)).thenReturn(List.of(
-                Category.builder().user(user).name("Travel").build()
+        when(categoryRepository.findResponsesByUserId(1L)).thenReturn(List.of(
+                new CategoryResponse(4L, "Travel")
         ));
-        List<Category> categories = categoryService.getCategoriesByUserId(1L);
+        List<CategoryResponse> categories = categoryService.getCategoriesByUserId(1L);
         assertThat(categories).hasSize(1);
         assertThat(categories.get(0).getName()).isEqualTo("Travel");
     }
+
+    @Test
+    void getCategoriesByUserId_shouldServeEntryCachedAtCurrentVersion() {
+        List<CategoryResponse> cached = List.of(new CategoryResponse(4L, "Travel"));
+        when(dataVersionService.current(1L)).thenReturn(7L);
+        when(categoriesCache.get(1L, CacheConfig.Versioned.class)).thenReturn(new CacheConfig.Versioned<>(7L, cached));
+
+        assertThat(categoryService.getCategoriesByUserId(1L)).isSameAs(cached);
+        verify(categoryRepository, never()).findResponsesByUserId(any());
+    }
+
+    @Test
+    void getCategoriesByUserId_shouldReloadEntryCachedAtOlderVersion() {
+        // Put back by a reader that loaded the list before a write committed
+        when(dataVersionService.current(1L)).thenReturn(8L);
+        when(categoriesCache.get(1L, CacheConfig.Versioned.class))
+                .thenReturn(new CacheConfig.Versioned<>(7L, List.of(new CategoryResponse(4L, "Travel"))));
+        List<CategoryResponse> fresh = List.of(new CategoryResponse(4L, "Trips"));
+        when(categoryRepository.findResponsesByUserId(1L)).thenReturn(fresh);
+
+        assertThat(categoryService.getCategoriesByUserId(1L)).isSameAs(fresh);
+        @SuppressWarnings("rawtypes")
+        ArgumentCaptor<CacheConfig.Versioned> captor = ArgumentCaptor.forClass(CacheConfig.Versioned.class);
+        verify(categoriesCache).put(eq(1L), captor.capture());
+        assertThat(captor.getValue().getVersion()).isEqualTo(8L);
+        assertThat(captor.getValue().getValue()).isSameAs(fresh);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.UserDataVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class DataVersionServiceTest {
+    @Mock
+    private UserDataVersionRepository versionRepository;
+    @InjectMocks
+    private DataVersionService dataVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void bump_shouldIncrementExistingVersion() {
+        when(versionRepository.increment(1L)).thenReturn(1);
+        when(versionRepository.findVersion(1L)).thenReturn(Optional.of(8L));
+
+        assertThat(dataVersionService.bump(1L)).isEqualTo(8L);
+        verify(versionRepository, never()).insertIfAbsent(anyLong(), anyLong());
+    }
+
+    @Test
+    void bump_shouldCreateVersionOnFirstWrite() {
+        when(versionRepository.increment(1L)).thenReturn(0);
+        when(versionRepository.insertIfAbsent(1L, 1L)).thenReturn(1);
+
+        assertThat(dataVersionService.bump(1L)).isEqualTo(1L);
+        verify(versionRepository, times(1)).increment(1L);
+    }
+
+    @Test
+    void bump_shouldIncrementRowCreatedByConcurrentFirstWrite() {
+        when(versionRepository.increment(1L)).thenReturn(0, 1);
+        when(versionRepository.insertIfAbsent(1L, 1L)).thenReturn(0);
+        when(versionRepository.findVersion(1L)).thenReturn(Optional.of(2L));
+
+        assertThat(dataVersionService.bump(1L)).isEqualTo(2L);
+        verify(versionRepository, times(2)).increment(1L);
+    }
+}
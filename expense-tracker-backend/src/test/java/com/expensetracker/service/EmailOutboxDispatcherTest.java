@@ -0,0 +1,118 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.EmailOutbox;
+import com.expensetracker.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // batch size 10, 2 senders, give up after 3 attempts
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, emailService, transactionManager,
+                10, 2, 3, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    private EmailOutbox message(long id, String recipient, int attempts) {
+        EmailOutbox message = EmailOutbox.confirmation(recipient, "token-" + id);
+        message.setId(id);
+        message.setAttempts(attempts);
+        return message;
+    }
+
+    private void givenDue(List<EmailOutbox> messages) {
+        when(outboxRepository.findDueForUpdate(eq(EmailOutbox.Status.PENDING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(messages);
+        when(outboxRepository.findAllById(any())).thenReturn(messages);
+    }
+
+    @Test
+    void dispatch_shouldSendDueMessagesAndMarkThemSent() {
+        EmailOutbox first = message(1L, "a@example.com", 0);
+        EmailOutbox second = message(2L, "b@example.com", 0);
+        givenDue(List.of(first, second));
+
+        dispatcher.dispatch();
+
+        verify(emailService).sendConfirmationEmail("a@example.com", "token-1");
+        verify(emailService).sendConfirmationEmail("b@example.com", "token-2");
+        assertThat(List.of(first, second)).allSatisfy(m -> {
+            assertThat(m.getStatus()).isEqualTo(EmailOutbox.Status.SENT);
+            assertThat(m.getAttempts()).isEqualTo(1);
+            assertThat(m.getSentAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void dispatch_shouldRescheduleFailedMessageWithBackoff() {
+        EmailOutbox message = message(1L, "a@example.com", 0);
+        givenDue(List.of(message));
+        doThrow(new IllegalStateException("SMTP unavailable")).when(emailService).sendConfirmationEmail(anyString(), anyString());
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        assertThat(message.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+        assertThat(message.getAttempts()).isEqualTo(1);
+        assertThat(message.getLastError()).isEqualTo("SMTP unavailable");
+        assertThat(message.getNextAttemptAt()).isAfter(before.plusSeconds(23)).isBefore(before.plusMinutes(1));
+    }
+
+    @Test
+    void dispatch_shouldGiveUpAfterMaxAttempts() {
+        EmailOutbox message = message(1L, "a@example.com", 2);
+        givenDue(List.of(message));
+        doThrow(new IllegalStateException("mailbox unavailable")).when(emailService).sendConfirmationEmail(anyString(), anyString());
+
+        dispatcher.dispatch();
+
+        assertThat(message.getStatus()).isEqualTo(EmailOutbox.Status.FAILED);
+        assertThat(message.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void dispatch_shouldDoNothingWhenOutboxIsEmpty() {
+        givenDue(List.of());
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(emailService);
+        verify(outboxRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void backoff_shouldGrowExponentiallyUpToTheCap() {
+        assertThat(dispatcher.backoff(1)).isBetween(Duration.ofSeconds(24), Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(3)).isBetween(Duration.ofSeconds(96), Duration.ofSeconds(120));
+        assertThat(dispatcher.backoff(20)).isBetween(Duration.ofMinutes(48), Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.repository.ExpenseRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ExpenseExportServiceTest {
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExpenseExportService exportService;
+    private ExpenseResponse lunch;
+    private ExpenseResponse taxi;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ExpenseExportService(expenseRepository, objectMapper);
+        lunch = ExpenseResponse.builder().id(1L).amount(new BigDecimal("12.50"))
+                .description("Lunch, with \"team\"").categoryId(7L).category("Food").date(LocalDate.of(2024, 1, 5)).build();
+        taxi = ExpenseResponse.builder().id(2L).amount(new BigDecimal("30.00"))
+                .description("Taxi").date(LocalDate.of(2024, 1, 6)).build();
+    }
+
+    @Test
+    void export_csv_shouldWriteHeaderAndEscapedRows() throws Exception {
+        when(expenseRepository.streamByUserId(1L)).thenReturn(Stream.of(lunch, taxi));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(1L, ExpenseExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,date,amount,category,description\n"
+                        + "1,2024-01-05,12.50,Food,\"Lunch, with \"\"team\"\"\"\n"
+                        + "2,2024-01-06,30.00,,Taxi\n");
+    }
+
+    @Test
+    void export_ndjson_shouldWriteOneObjectPerLine() throws Exception {
+        when(expenseRepository.streamByUserId(1L)).thenReturn(Stream.of(lunch, taxi));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(1L, ExpenseExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(first.get("description").asText()).isEqualTo("Lunch, with \"team\"");
+        assertThat(objectMapper.readTree(lines[1]).get("category").isNull()).isTrue();
+    }
+}
@@ -0,0 +1,158 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseImportResult;
+import com.expensetracker.dto.ExpenseImportRow;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ExpenseImportServiceTest {
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ExpenseSummaryService summaryService;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private CategoryService categoryService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManager.getReference(User.class, 1L)).thenReturn(User.builder().id(1L).build());
+        when(entityManager.getReference(Category.class, 7L)).thenReturn(Category.builder().id(7L).build());
+        // chunk size 4, batch size 2, at most 10 rows
+        importService = new ExpenseImportService(entityManager, summaryService, dataVersionService, categoryService, eventPublisher, transactionManager, 4, 2, 10);
+    }
+
+    @Test
+    void importExpenses_shouldPersistAllRowsInChunkedTransactionsAndFlushPerBatch() {
+        List<ExpenseImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(ExpenseImportRow.builder().amount(new BigDecimal("1.00")).description("row " + i).build());
+        }
+        when(dataVersionService.bump(1L)).thenReturn(5L, 6L);
+
+        ExpenseImportResult result = importService.importExpenses(1L, rows);
+
+        assertThat(result.getImported()).isEqualTo(6);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.getFailedRow()).isNull();
+        ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
+        verify(entityManager, times(6)).persist(captor.capture());
+        assertThat(captor.getAllValues()).allSatisfy(e -> {
+            assertThat(e.getUser().getId()).isEqualTo(1L);
+            assertThat(e.getDate()).isEqualTo(LocalDate.now());
+        });
+        // each chunk's rows carry that chunk's version
+        assertThat(captor.getAllValues()).extracting(Expense::getChangeVersion).containsExactly(5L, 5L, 5L, 5L, 6L, 6L);
+        // two chunks -> two transactions
+        verify(transactionManager, times(2)).commit(any());
+        // chunk of 4: flush after rows 2 and 4 plus the final flush; chunk of 2: flush after row 2 plus the final flush
+        verify(entityManager, times(5)).flush();
+        // one summary delta per chunk for the single (month, uncategorized) bucket
+        verify(summaryService).recordBulkAdded(1L, YearMonth.now(), null, new BigDecimal("4.00"), 4L);
+        verify(summaryService).recordBulkAdded(1L, YearMonth.now(), null, new BigDecimal("2.00"), 2L);
+        verify(dataVersionService, times(2)).bump(1L);
+        verifyNoInteractions(categoryService);
+        verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L));
+    }
+
+    @Test
+    void importExpenses_shouldReportCommittedRowsWhenALaterChunkFails() {
+        List<ExpenseImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(ExpenseImportRow.builder().amount(new BigDecimal("1.00")).description("row " + i).build());
+        }
+        when(dataVersionService.bump(1L)).thenReturn(5L).thenThrow(new IllegalStateException("connection lost"));
+
+        ExpenseImportResult result = importService.importExpenses(1L, rows);
+
+        // the first chunk of 4 is committed, the second rolled back and the third never started
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(result.getFailedRow()).isEqualTo(4);
+        assertThat(result.getErrors()).isNotEmpty();
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(entityManager, times(4)).persist(any(Expense.class));
+        verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L));
+    }
+
+    @Test
+    void importExpenses_shouldRejectWholeImportWhenAnyRowIsInvalid() {
+        List<ExpenseImportRow> rows = List.of(
+                ExpenseImportRow.builder().amount(new BigDecimal("5.00")).build(),
+                ExpenseImportRow.builder().description("no amount").build(),
+                ExpenseImportRow.builder().amount(new BigDecimal("1.005")).build());
+
+        ExpenseImportResult result = importService.importExpenses(1L, rows);
+
+        assertThat(result.getImported()).isZero();
+        assertThat(result.getErrors()).containsExactly(
+                "row 2: amount is required",
+                "row 3: amount has more than 2 decimal places");
+        verify(entityManager, never()).persist(any());
+        verifyNoInteractions(transactionManager, dataVersionService, eventPublisher);
+    }
+
+    @Test
+    void importCsv_shouldParseQuotedFieldsInAnyColumnOrder() throws Exception {
+        when(categoryService.resolveCategoryIds(1L, Set.of("Food"))).thenReturn(Map.of("Food", 7L));
+        String csv = "description,amount,date,category\r\n"
+                + "\"Dinner, with \"\"friends\"\"\",42.10,2024-03-01,Food\r\n"
+                + "Bus,2.50,,\n";
+
+        ExpenseImportResult result = importService.importCsv(1L, new StringReader(csv));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
+        verify(entityManager, times(2)).persist(captor.capture());
+        Expense dinner = captor.getAllValues().get(0);
+        assertThat(dinner.getDescription()).isEqualTo("Dinner, with \"friends\"");
+        assertThat(dinner.getAmount()).isEqualByComparingTo("42.10");
+        assertThat(dinner.getDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(dinner.getCategory().getId()).isEqualTo(7L);
+        assertThat(captor.getAllValues().get(1).getCategory()).isNull();
+        verify(summaryService).recordBulkAdded(1L, YearMonth.of(2024, 3), 7L, new BigDecimal("42.10"), 1L);
+    }
+
+    @Test
+    void importCsv_shouldReportUnparseableLines() throws Exception {
+        String csv = "amount,date\nabc,2024-01-01\n3.00,not-a-date\n";
+
+        ExpenseImportResult result = importService.importCsv(1L, new BufferedReader(new StringReader(csv)));
+
+        assertThat(result.getErrors()).containsExactly(
+                "line 2: unparseable amount or date",
+                "line 3: unparseable amount or date");
+        verify(entityManager, never()).persist(any());
+    }
+}
@@ -1,59 +1,257 @@
 package com.expensetracker.service;
 
+import com.expensetracker.dto.ChangeCursor;
+import com.expensetracker.dto.CursorPage;
+import com.expensetracker.dto.ExpenseChanges;
+import com.expensetracker.dto.ExpenseCursor;
+import com.expensetracker.dto.ExpenseFilter;
+import com.expensetracker.dto.ExpenseRequest;
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.dto.SearchPage;
+import com.expensetracker.event.ExpensesChangedEvent;
+import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseTombstone;
 import com.expensetracker.model.User;
+import com.expensetracker.repository.CategoryRepository;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseTombstoneRepository;
+import com.expensetracker.search.ExpenseSearchEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class ExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
+    @Mock
+    private ExpenseTombstoneRepository tombstoneRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ExpenseSummaryService summaryService;
+    @Mock
+    private DataVersionService dataVersionService;
+    @Mock
+    private ExpenseSearchEngine searchEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private ExpenseService expenseService;
 
     private User user;
+    private Category food;
+    private Category travel;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         user = User.builder().id(1L).email("test@example.com").status(User.Status.ACTIVE).build();
+        food = Category.builder().id(7L).user(user).name("Food").build();
+        travel = Category.builder().id(8L).user(user).name("Travel").build();
     }
 
     @Test
     void createExpense_shouldSaveExpense() {
-        Expense expense = Expense.builder()
-                .user(user)
+        when(categoryRepository.findByIdAndUserId(7L, 1L)).thenReturn(Optional.of(food));
+        when(dataVersionService.bump(1L)).thenReturn(4L);
+        ExpenseRequest request = ExpenseRequest.builder()
                 .amount(new BigDecimal("100.00"))
                 .description("Lunch")
-                .category("Food")
+                .categoryId(7L)
                 .date(LocalDate.now())
                 .build();
-        expenseService.createExpense(expense);
+        expenseService.createExpense(1L, request);
         ArgumentCaptor<Expense> captor = ArgumentCaptor.forClass(Expense.class);
         verify(expenseRepository).save(captor.capture());
-        assertThat(captor.getValue().getUser()).isEqualTo(user);
+        assertThat(captor.getValue().getUser().getId()).isEqualTo(1L);
         assertThat(captor.getValue().getAmount()).isEqualTo(new BigDecimal("100.00"));
+        assertThat(captor.getValue().getCategory()).isSameAs(food);
+        assertThat(captor.getValue().getChangeVersion()).isEqualTo(4L);
+        verify(summaryService).recordAdded(1L, request.getDate(), 7L, new BigDecimal("100.00"));
+        verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L));
+    }
+
+    @Test
+    void createExpense_shouldRejectAnotherUsersCategory() {
+        when(categoryRepository.findByIdAndUserId(9L, 1L)).thenReturn(Optional.empty());
+        ExpenseRequest request = ExpenseRequest.builder().amount(new BigDecimal("1.00")).categoryId(9L).build();
+
+        assertThatThrownBy(() -> expenseService.createExpense(1L, request)).isInstanceOf(IllegalArgumentException.class);
+
+        verify(expenseRepository, never()).save(any());
+        verifyNoInteractions(summaryService);
+    }
+
+    @Test
+    void updateExpense_shouldApplyOldAndNewValuesToSummary() {
+        Expense existing = Expense.builder().id(5L).user(user).amount(new BigDecimal("10.00"))
+                .category(food).date(LocalDate.of(2024, 1, 10)).build();
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(categoryRepository.findByIdAndUserId(8L, 1L)).thenReturn(Optional.of(travel));
+        ExpenseRequest updated = ExpenseRequest.builder().amount(new BigDecimal("25.00"))
+                .categoryId(8L).date(LocalDate.of(2024, 2, 1)).build();
+
+        boolean result = expenseService.updateExpense(5L, updated, 1L);
+
+        assertThat(result).isTrue();
+        assertThat(existing.getCategory()).isSameAs(travel);
+        verify(summaryService).recordChanged(1L,
+                LocalDate.of(2024, 1, 10), 7L, new BigDecimal("10.00"),
+                LocalDate.of(2024, 2, 1), 8L, new BigDecimal("25.00"));
+    }
+
+    @Test
+    void updateExpense_shouldNotReloadUnchangedCategory() {
+        Expense existing = Expense.builder().id(5L).user(user).amount(new BigDecimal("10.00"))
+                .category(food).date(LocalDate.of(2024, 1, 10)).build();
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        expenseService.updateExpense(5L, ExpenseRequest.builder().amount(new BigDecimal("12.00")).categoryId(7L).build(), 1L);
+
+        verifyNoInteractions(categoryRepository);
+        assertThat(existing.getCategory()).isSameAs(food);
+    }
+
+    @Test
+    void deleteExpense_shouldRemoveFromSummaryAndLeaveTombstone() {
+        Expense existing = Expense.builder().id(5L).user(user).amount(new BigDecimal("10.00"))
+                .category(food).date(LocalDate.of(2024, 1, 10)).build();
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(dataVersionService.bump(1L)).thenReturn(12L);
+
+        assertThat(expenseService.deleteExpense(5L, 1L)).isTrue();
+
+        verify(expenseRepository).delete(existing);
+        verify(summaryService).recordRemoved(1L, LocalDate.of(2024, 1, 10), 7L, new BigDecimal("10.00"));
+        ArgumentCaptor<ExpenseTombstone> captor = ArgumentCaptor.forClass(ExpenseTombstone.class);
+        verify(tombstoneRepository).save(captor.capture());
+        assertThat(captor.getValue().getExpenseId()).isEqualTo(5L);
+        assertThat(captor.getValue().getUserId()).isEqualTo(1L);
+        assertThat(captor.getValue().getChangeVersion()).isEqualTo(12L);
+    }
+
+    @Test
+    void deleteExpense_shouldLeaveSummaryAloneForOtherUsersExpense() {
+        User other = User.builder().id(2L).build();
+        Expense existing = Expense.builder().id(5L).user(other).amount(new BigDecimal("10.00")).date(LocalDate.now()).build();
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existing));
+
+        assertThat(expenseService.deleteExpense(5L, 1L)).isFalse();
+
+        verify(expenseRepository, never()).delete(any());
+        verifyNoInteractions(summaryService, dataVersionService, tombstoneRepository, eventPublisher);
+    }
+
+    @Test
+    void getChanges_shouldMergeWritesAndDeletesInVersionOrderAndResumeFromLastReturned() {
+        ChangeCursor since = new ChangeCursor(3L, 40L);
+        PageRequest fetch = PageRequest.of(0, 4);
+        when(expenseRepository.findChangedSince(1L, 3L, 40L, fetch)).thenReturn(List.of(
+                new Object[]{3L, 41L, new BigDecimal("5.00"), "Coffee", 7L, "Food", LocalDate.of(2024, 3, 1)},
+                new Object[]{5L, 12L, new BigDecimal("9.50"), "Taxi", null, null, LocalDate.of(2024, 3, 2)},
+                new Object[]{6L, 50L, new BigDecimal("1.00"), "Gum", null, null, LocalDate.of(2024, 3, 3)}));
+        when(tombstoneRepository.findChangedSince(1L, 3L, 40L, fetch)).thenReturn(List.of(
+                new ExpenseTombstone(30L, 1L, 4L, LocalDateTime.now()),
+                new ExpenseTombstone(31L, 1L, 7L, LocalDateTime.now())));
+
+        ExpenseChanges changes = expenseService.getChanges(1L, since.encode(), 3);
+
+        assertThat(changes.getUpserted()).extracting(ExpenseResponse::getId).containsExactly(41L, 12L);
+        assertThat(changes.getUpserted().get(0).getCategory()).isEqualTo("Food");
+        assertThat(changes.getDeleted()).containsExactly(30L);
+        assertThat(ChangeCursor.decode(changes.getCursor())).isEqualTo(new ChangeCursor(5L, 12L));
+        assertThat(changes.isHasMore()).isTrue();
+    }
+
+    @Test
+    void getChanges_shouldStartBeforeEveryRowAndKeepCursorWhenNothingChanged() {
+        when(expenseRepository.findChangedSince(eq(1L), eq(-1L), eq(0L), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedSince(eq(1L), eq(-1L), eq(0L), any())).thenReturn(List.of());
+
+        ExpenseChanges changes = expenseService.getChanges(1L, null, 100);
+
+        assertThat(changes.getUpserted()).isEmpty();
+        assertThat(changes.getDeleted()).isEmpty();
+        assertThat(changes.getCursor()).isEqualTo(ChangeCursor.START.encode());
+        assertThat(changes.isHasMore()).isFalse();
+    }
+
+    @Test
+    void search_shouldNormalizeQueryAndReturnNextPageWhenMoreHitsExist() {
+        ExpenseResponse first = ExpenseResponse.builder().id(3L).description("Uber ride").date(LocalDate.of(2024, 3, 2)).build();
+        ExpenseResponse second = ExpenseResponse.builder().id(2L).description("Uber eats").date(LocalDate.of(2024, 3, 1)).build();
+        ExpenseResponse third = ExpenseResponse.builder().id(1L).description("Ride share").date(LocalDate.of(2024, 2, 1)).build();
+        ExpenseFilter filter = new ExpenseFilter();
+        when(searchEngine.search(1L, List.of("uber", "ride"), filter, 2, 3)).thenReturn(List.of(first, second, third));
+
+        SearchPage<ExpenseResponse> page = expenseService.search(1L, "Uber, ride! uber", filter, 1, 2);
+
+        assertThat(page.getItems()).containsExactly(first, second);
+        assertThat(page.getPage()).isEqualTo(1);
+        assertThat(page.getNextPage()).isEqualTo(2);
+    }
+
+    @Test
+    void search_shouldRejectQueryWithoutWords() {
+        assertThatThrownBy(() -> expenseService.search(1L, " -- ", new ExpenseFilter(), 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(searchEngine);
     }
 
     @Test
     void getExpensesByUserId_shouldReturnExpenses() {
-        when(expenseRepository.findByUserId(1L)).thenReturn(List.of(
-                Expense.builder().user(user).amount(new BigDecimal("50.00")).description("Coffee").category("Food").date(LocalDate.now()).build()
+        when(expenseRepository.findResponsesByUserId(1L)).thenReturn(List.of(
+                ExpenseResponse.builder().id(1L).amount(new BigDecimal("50.00")).description("Coffee").categoryId(7L).category("Food").date(LocalDate.now()).build()
         ));
-        List<Expense> expenses = expenseService.getExpensesByUserId(1L);
+        List<ExpenseResponse> expenses = expenseService.getExpensesByUserId(1L);
         assertThat(expenses).hasSize(1);
         assertThat(expenses.get(0).getDescription()).isEqualTo("Coffee");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getExpensePage_shouldReturnNextCursorWhenMoreRowsExist() {
+        ExpenseResponse newest = ExpenseResponse.builder().id(3L).amount(new BigDecimal("10.00")).date(LocalDate.of(2024, 3, 2)).build();
+        ExpenseResponse middle = ExpenseResponse.builder().id(2L).amount(new BigDecimal("20.00")).date(LocalDate.of(2024, 3, 1)).build();
+        ExpenseResponse oldest = ExpenseResponse.builder().id(1L).amount(new BigDecimal("30.00")).date(LocalDate.of(2024, 2, 1)).build();
+        ExpenseFilter filter = new ExpenseFilter();
+        when(expenseRepository.findPage(1L, filter, null, 3)).thenReturn(List.of(newest, middle, oldest));
+
+        CursorPage<ExpenseResponse> page = expenseService.getExpensePage(1L, filter, null, 2);
+
+        assertThat(page.getItems()).containsExactly(newest, middle);
+        ExpenseCursor next = ExpenseCursor.decode(page.getNextCursor());
+        assertThat(next.getDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(next.getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void getExpensePage_shouldSeekPastCursorAndEndOnLastPage() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDate.of(2024, 3, 1), 2L);
+        ExpenseResponse oldest = ExpenseResponse.builder().id(1L).amount(new BigDecimal("30.00")).date(LocalDate.of(2024, 2, 1)).build();
+        when(expenseRepository.findPage(eq(1L), any(), any(ExpenseCursor.class), eq(3))).thenReturn(List.of(oldest));
+
+        CursorPage<ExpenseResponse> page = expenseService.getExpensePage(1L, new ExpenseFilter(), cursor.encode(), 2);
+
+        ArgumentCaptor<ExpenseCursor> captor = ArgumentCaptor.forClass(ExpenseCursor.class);
+        verify(expenseRepository).findPage(eq(1L), any(), captor.capture(), eq(3));
+        assertThat(captor.getValue()).isEqualTo(cursor);
+        assertThat(page.getItems()).containsExactly(oldest);
+        assertThat(page.getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,112 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dto.ExpenseSummaryResponse;
+import com.expensetracker.model.ExpenseSummary;
+import com.expensetracker.repository.ExpenseSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ExpenseSummaryServiceTest {
+    @Mock
+    private ExpenseSummaryRepository summaryRepository;
+    @InjectMocks
+    private ExpenseSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void recordAdded_shouldUpdateExistingBucket() {
+        when(summaryRepository.applyDelta(1L, LocalDate.of(2024, 3, 1), 7L, new BigDecimal("12.00"), 1L)).thenReturn(1);
+
+        summaryService.recordAdded(1L, LocalDate.of(2024, 3, 15), 7L, new BigDecimal("12.00"));
+
+        verify(summaryRepository, never()).insertIfAbsent(anyLong(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void recordAdded_shouldInsertMissingBucketWithZeroKeyForUncategorized() {
+        when(summaryRepository.applyDelta(anyLong(), any(), any(), any(), anyLong())).thenReturn(0);
+        when(summaryRepository.insertIfAbsent(anyLong(), any(), any(), any(), anyLong())).thenReturn(1);
+
+        summaryService.recordAdded(1L, LocalDate.of(2024, 3, 15), null, new BigDecimal("12.00"));
+
+        verify(summaryRepository).insertIfAbsent(1L, LocalDate.of(2024, 3, 1), 0L, new BigDecimal("12.00"), 1L);
+        verify(summaryRepository, times(1)).applyDelta(anyLong(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void recordAdded_shouldApplyDeltaToBucketCreatedByConcurrentWrite() {
+        when(summaryRepository.applyDelta(1L, LocalDate.of(2024, 3, 1), 7L, new BigDecimal("12.00"), 1L)).thenReturn(0, 1);
+        when(summaryRepository.insertIfAbsent(anyLong(), any(), any(), any(), anyLong())).thenReturn(0);
+
+        summaryService.recordAdded(1L, LocalDate.of(2024, 3, 15), 7L, new BigDecimal("12.00"));
+
+        verify(summaryRepository, times(2)).applyDelta(1L, LocalDate.of(2024, 3, 1), 7L, new BigDecimal("12.00"), 1L);
+    }
+
+    @Test
+    void recordChanged_withinSameBucket_shouldApplyOnlyTheDifference() {
+        when(summaryRepository.applyDelta(anyLong(), any(), any(), any(), anyLong())).thenReturn(1);
+
+        summaryService.recordChanged(1L,
+                LocalDate.of(2024, 3, 2), 7L, new BigDecimal("10.00"),
+                LocalDate.of(2024, 3, 20), 7L, new BigDecimal("14.50"));
+
+        verify(summaryRepository).applyDelta(1L, LocalDate.of(2024, 3, 1), 7L, new BigDecimal("4.50"), 0L);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void recordChanged_acrossBuckets_shouldMoveAmountAndCount() {
+        when(summaryRepository.applyDelta(anyLong(), any(), any(), any(), anyLong())).thenReturn(1);
+
+        summaryService.recordChanged(1L,
+                LocalDate.of(2024, 3, 2), 7L, new BigDecimal("10.00"),
+                LocalDate.of(2024, 4, 2), 8L, new BigDecimal("10.00"));
+
+        verify(summaryRepository).applyDelta(1L, LocalDate.of(2024, 3, 1), 7L, new BigDecimal("-10.00"), -1L);
+        verify(summaryRepository).applyDelta(1L, LocalDate.of(2024, 4, 1), 8L, new BigDecimal("10.00"), 1L);
+    }
+
+    @Test
+    void recordCategoryRemoved_shouldFoldEachMonthIntoUncategorized() {
+        when(summaryRepository.findByCategoryId(7L)).thenReturn(List.of(
+                ExpenseSummary.builder().userId(1L).monthStart(LocalDate.of(2024, 3, 1)).categoryId(7L)
+                        .total(new BigDecimal("40.00")).expenseCount(3).build()));
+        when(summaryRepository.applyDelta(anyLong(), any(), any(), any(), anyLong())).thenReturn(1);
+
+        summaryService.recordCategoryRemoved(7L);
+
+        verify(summaryRepository).deleteByCategoryId(7L);
+        verify(summaryRepository).applyDelta(1L, LocalDate.of(2024, 3, 1), 0L, new BigDecimal("40.00"), 3L);
+    }
+
+    @Test
+    void getSummary_shouldMapBucketsToMonthsAndRestoreNullCategory() {
+        when(summaryRepository.findForPeriod(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1))).thenReturn(List.of(
+                new Object[]{ExpenseSummary.builder().userId(1L).monthStart(LocalDate.of(2024, 1, 1)).categoryId(0L)
+                        .total(new BigDecimal("5.00")).expenseCount(2).build(), null},
+                new Object[]{ExpenseSummary.builder().userId(1L).monthStart(LocalDate.of(2024, 1, 1)).categoryId(7L)
+                        .total(new BigDecimal("9.00")).expenseCount(1).build(), "Food"}));
+
+        List<ExpenseSummaryResponse> summary = summaryService.getSummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 2));
+
+        assertThat(summary).containsExactly(
+                new ExpenseSummaryResponse(YearMonth.of(2024, 1), null, null, new BigDecimal("5.00"), 2),
+                new ExpenseSummaryResponse(YearMonth.of(2024, 1), 7L, "Food", new BigDecimal("9.00"), 1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.expensetracker.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+    private static final String SECRET = "mydevsupersecretkeymydevsupersecretkey123456";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(SECRET, 100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    void parseToken_shouldReturnClaimsOfGeneratedToken() {
+        String token = jwtService.generateToken("test@example.com", 42L);
+
+        Claims claims = jwtService.parseToken(token);
+
+        assertThat(claims.getSubject()).isEqualTo("test@example.com");
+        assertThat(((Number) claims.get("userId")).longValue()).isEqualTo(42L);
+    }
+
+    @Test
+    void parseToken_shouldServeRepeatTokensFromCacheAndRecordHits() {
+        String token = jwtService.generateToken("test@example.com", 42L);
+
+        Claims first = jwtService.parseToken(token);
+        Claims second = jwtService.parseToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("jwt.parse").tag("outcome", "verified").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.parse").tag("outcome", "cached").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void parseToken_shouldRejectTamperedToken() {
+        String token = jwtService.generateToken("test@example.com", 42L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.parseToken(tampered)).isInstanceOf(JwtException.class);
+        assertThat(meterRegistry.get("jwt.parse").tag("outcome", "rejected").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void parseToken_shouldRejectExpiredToken() {
+        long past = System.currentTimeMillis() - 7200_000;
+        String expired = Jwts.builder()
+                .setSubject("test@example.com")
+                .setIssuedAt(new Date(past))
+                .setExpiration(new Date(past + 3600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtService.parseToken(expired)).isInstanceOf(JwtException.class);
+    }
+}
@@ -2,15 +2,23 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.User;
 import com.expensetracker.model.ConfirmationToken;
+import com.expensetracker.model.EmailOutbox;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.repository.ConfirmationTokenRepository;
+import com.expensetracker.repository.EmailOutboxRepository;
+import com.expensetracker.security.PasswordHasher;
+import com.expensetracker.security.UserCredentials;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -19,11 +27,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private EmailService emailService;
+    private EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    private ConfirmationTokenRepository confirmationTokenRepository;
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
     @Mock
     private JwtService jwtService;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     private UserService userService;
 
@@ -33,11 +45,11 @@ class UserServiceTest {
     }
 
     @Test
-    void registerUser_shouldCreateUserWithPendingStatusAndSendConfirmationEmail() {
+    void registerUser_shouldCreateUserWithPendingStatusAndQueueConfirmationEmail() {
         String email = "test@example.com";
         String password = "password123";
         String encodedPassword = "encodedPassword";
-        when(passwordEncoder.encode(password)).thenReturn(encodedPassword);
+        when(passwordHasher.encode(password)).thenReturn(encodedPassword);
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
         userService.registerUser(email, password);
@@ -48,7 +60,16 @@ class UserServiceTest {
         assertThat(savedUser.getEmail()).isEqualTo(email);
         assertThat(savedUser.getPassword()).isEqualTo(encodedPassword);
         assertThat(savedUser.getStatus()).isEqualTo(User.Status.PENDING);
-        verify(emailService).sendConfirmationEmail(eq(email), anyString());
+        ArgumentCaptor<ConfirmationToken> tokenCaptor = ArgumentCaptor.forClass(ConfirmationToken.class);
+        verify(confirmationTokenRepository).save(tokenCaptor.capture());
+        assertThat(tokenCaptor.getValue().getUser()).isSameAs(savedUser);
+        ArgumentCaptor<EmailOutbox> outboxCaptor = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(emailOutboxRepository).save(outboxCaptor.capture());
+        EmailOutbox outbox = outboxCaptor.getValue();
+        assertThat(outbox.getRecipient()).isEqualTo(email);
+        assertThat(outbox.getToken()).isEqualTo(tokenCaptor.getValue().getToken());
+        assertThat(outbox.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+        verify(transactionTemplate).executeWithoutResult(any());
     }
 
     @Test
@@ -65,7 +86,7 @@ class UserServiceTest {
         when(tokenRepository.findByToken(token)).thenReturn(java.util.Optional.of(confirmationToken));
         UserRepository userRepository = mock(UserRepository.class);
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
-        UserService userService = new UserService(userRepository, emailService, passwordEncoder, tokenRepository, jwtService);
+        UserService userService = new UserService(userRepository, emailOutboxRepository, passwordHasher, tokenRepository, jwtService, transactionTemplate);
 
         // Act
         boolean result = userService.confirmUser(token);
@@ -81,7 +102,7 @@ class UserServiceTest {
         String token = "invalid-token";
         ConfirmationTokenRepository tokenRepository = mock(ConfirmationTokenRepository.class);
         when(tokenRepository.findByToken(token)).thenReturn(java.util.Optional.empty());
-        UserService userService = new UserService(userRepository, emailService, passwordEncoder, tokenRepository, jwtService);
+        UserService userService = new UserService(userRepository, emailOutboxRepository, passwordHasher, tokenRepository, jwtService, transactionTemplate);
 
         // Act
         boolean result = userService.confirmUser(token);
@@ -89,4 +110,37 @@ class UserServiceTest {
         // Assert
         assertThat(result).isFalse();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void login_shouldUseCachedActiveCredentials() {
+        when(userRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(
+                new UserCredentials(1L, "test@example.com", "encoded", User.Status.ACTIVE)));
+        when(passwordHasher.matches("password123", "encoded")).thenReturn(true);
+        when(jwtService.generateToken("test@example.com", 1L)).thenReturn("jwt");
+
+        assertThat(userService.login("test@example.com", "password123")).isEqualTo("jwt");
+        verify(userRepository, never()).reloadCredentialsByEmail(any());
+    }
+
+    @Test
+    void login_shouldRecheckCachedPendingUserConfirmedSince() {
+        when(userRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(
+                new UserCredentials(1L, "test@example.com", "encoded", User.Status.PENDING)));
+        when(userRepository.reloadCredentialsByEmail("test@example.com")).thenReturn(Optional.of(
+                new UserCredentials(1L, "test@example.com", "encoded", User.Status.ACTIVE)));
+        when(passwordHasher.matches("password123", "encoded")).thenReturn(true);
+        when(jwtService.generateToken("test@example.com", 1L)).thenReturn("jwt");
+
+        assertThat(userService.login("test@example.com", "password123")).isEqualTo("jwt");
+    }
+
+    @Test
+    void login_shouldRejectUserStillPending() {
+        UserCredentials pending = new UserCredentials(1L, "test@example.com", "encoded", User.Status.PENDING);
+        when(userRepository.findCredentialsByEmail("test@example.com")).thenReturn(Optional.of(pending));
+        when(userRepository.reloadCredentialsByEmail("test@example.com")).thenReturn(Optional.of(pending));
+
+        assertThat(userService.login("test@example.com", "password123")).isNull();
+        verifyNoInteractions(passwordHasher, jwtService);
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensetracker.stream;
+
+import com.expensetracker.event.CategoriesChangedEvent;
+import com.expensetracker.event.ExpensesChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeStreamHubTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch sendersBlocked = new CountDownLatch(1);
+    private ExecutorService senders;
+    private ChangeStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        senders = Executors.newSingleThreadExecutor();
+        // Hold the only sender so queued notifications stay queued
+        senders.execute(() -> {
+            try {
+                sendersBlocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Room for the initial heartbeat plus one notification
+        hub = new ChangeStreamHub(meterRegistry, senders, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendersBlocked.countDown();
+        senders.shutdownNow();
+    }
+
+    @Test
+    void publish_shouldDropOnlySubscribersWhoseBufferOverflows() {
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+
+        hub.onExpensesChanged(new ExpensesChangedEvent(1L));
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+        hub.onCategoriesChanged(new CategoriesChangedEvent(1L));
+
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("change.stream.dropped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("change.stream.subscribers").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void heartbeat_shouldSkipStreamsWithPendingMessages() {
+        hub.subscribe(1L);
+
+        hub.heartbeat();
+        hub.onExpensesChanged(new ExpensesChangedEvent(1L));
+
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("change.stream.dropped").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package com.expensetracker.benchmarks;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample data shared by the benchmarks.
+ */
+final class BenchmarkData {
+    private static final String[] CATEGORIES = {"Food", "Travel", "Rent", "Utilities", "Fun"};
+    private static final String[] DESCRIPTIONS = {"Lunch with team", "Uber ride downtown", "Monthly rent",
+            "Electricity bill", "Concert tickets", "Coffee", "Groceries for the week"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Expense> expenses(int size) {
+        Random random = new Random(42);
+        User user = User.builder()
+                .id(1L)
+                .email("bench@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234")
+                .status(User.Status.ACTIVE)
+                .build();
+        Category[] categories = new Category[CATEGORIES.length];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = Category.builder().id((long) i + 1).user(user).name(CATEGORIES[i]).build();
+        }
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<Expense> expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expenses.add(Expense.builder()
+                    .id((long) i + 1)
+                    .user(user)
+                    .amount(BigDecimal.valueOf(100 + random.nextInt(100_000), 2))
+                    .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                    .category(categories[random.nextInt(categories.length)])
+                    .date(start.plusDays(random.nextInt(1500)))
+                    .build());
+        }
+        return expenses;
+    }
+
+    static List<ExpenseResponse> responses(List<Expense> expenses) {
+        List<ExpenseResponse> responses = new ArrayList<>(expenses.size());
+        for (Expense e : expenses) {
+            responses.add(new ExpenseResponse(e.getId(), e.getAmount(), e.getDescription(),
+                    e.getCategory().getId(), e.getCategory().getName(), e.getDate()));
+        }
+        return responses;
+    }
+}
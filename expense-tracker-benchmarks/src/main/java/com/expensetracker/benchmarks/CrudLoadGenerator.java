@@ -0,0 +1,241 @@
+package com.expensetracker.benchmarks;
+
+import com.expensetracker.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop CRUD load against a running backend, for comparing throughput and tail latency of
+ * the platform-thread and virtual-thread request modes ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * Each client repeatedly creates an expense, reads the first page, reads the category list, then
+ * updates and deletes the newest expense it saw. A 404 on update/delete is expected when another
+ * client got there first and is not counted as an error.
+ * <pre>
+ * java -cp benchmarks.jar com.expensetracker.benchmarks.CrudLoadGenerator \
+ *     --url=http://localhost:8080 --clients=200 --duration=60 --warmup=15 --user-id=1 --email=load@example.com
+ * </pre>
+ * The bearer token is minted locally, so {@code --secret} must match the server's {@code jwt.secret}
+ * and {@code --user-id} must be an existing user. Expenses are uncategorized unless {@code --category-id}
+ * names one of that user's categories.
+ */
+public final class CrudLoadGenerator {
+    enum Op { CREATE, PAGE, CATEGORIES, UPDATE, DELETE }
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String authorization;
+    private final String categoryField;
+
+    private CrudLoadGenerator(String baseUrl, String token, String categoryId, int clients) {
+        this.baseUrl = baseUrl;
+        this.authorization = "Bearer " + token;
+        this.categoryField = categoryId == null ? "" : ",\"categoryId\":" + Long.parseLong(categoryId);
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, clients / 4)))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        String secret = options.getOrDefault("secret", JwtServiceBenchmark.SECRET);
+        long userId = Long.parseLong(options.getOrDefault("user-id", "1"));
+        String email = options.getOrDefault("email", "load@example.com");
+
+        String token = new JwtService(secret, 1, Duration.ofMinutes(1), new SimpleMeterRegistry())
+                .generateToken(email, userId);
+        CrudLoadGenerator generator = new CrudLoadGenerator(url, token, options.get("category-id"), clients);
+
+        System.out.printf("Warming up %d clients against %s for %ds%n", clients, url, warmupSeconds);
+        generator.run(clients, warmupSeconds);
+        System.out.printf("Measuring for %ds%n", durationSeconds);
+        Recorder result = generator.run(clients, durationSeconds);
+        result.print(durationSeconds);
+        System.exit(0);
+    }
+
+    private Recorder run(int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Recorder>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(workers.submit(() -> clientLoop(deadline)));
+            }
+            Recorder total = new Recorder();
+            for (Future<Recorder> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Recorder clientLoop(long deadline) {
+        Recorder recorder = new Recorder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            String body = "{\"amount\":" + (1 + random.nextInt(50_000)) / 100.0
+                    + ",\"description\":\"load test\"" + categoryField + ",\"date\":\""
+                    + LocalDate.now().minusDays(random.nextInt(365)) + "\"}";
+            send(recorder, Op.CREATE, request("/api/expenses").POST(jsonBody(body)));
+            HttpResponse<String> page = send(recorder, Op.PAGE, request("/api/expenses/page?limit=20").GET());
+            send(recorder, Op.CATEGORIES, request("/api/categories").GET());
+
+            Long id = firstId(page);
+            if (id != null) {
+                String update = "{\"amount\":12.34,\"description\":\"load test updated\"" + categoryField + ",\"date\":\""
+                        + LocalDate.now() + "\"}";
+                send(recorder, Op.UPDATE, request("/api/expenses/" + id).PUT(jsonBody(update)));
+                send(recorder, Op.DELETE, request("/api/expenses/" + id).DELETE());
+            }
+        }
+        return recorder;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher jsonBody(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private HttpResponse<String> send(Recorder recorder, Op op, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() < 400
+                    || (response.statusCode() == 404 && (op == Op.UPDATE || op == Op.DELETE));
+            recorder.record(op, System.nanoTime() - start, ok);
+            return response;
+        } catch (Exception e) {
+            recorder.record(op, System.nanoTime() - start, false);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
+
+    private Long firstId(HttpResponse<String> page) {
+        if (page == null || page.statusCode() != 200) {
+            return null;
+        }
+        try {
+            JsonNode items = objectMapper.readTree(page.body()).path("items");
+            return items.isEmpty() ? null : items.get(0).path("id").asLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Per-client latency samples, kept as primitive arrays indexed by operation so recording doesn't allocate.
+     */
+    private static final class Recorder {
+        private final long[][] samples = new long[Op.values().length][1024];
+        private final int[] counts = new int[Op.values().length];
+        private final int[] errors = new int[Op.values().length];
+
+        void record(Op op, long nanos, boolean ok) {
+            int i = op.ordinal();
+            if (counts[i] == samples[i].length) {
+                samples[i] = Arrays.copyOf(samples[i], counts[i] * 2);
+            }
+            samples[i][counts[i]++] = nanos;
+            if (!ok) {
+                errors[i]++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < counts.length; i++) {
+                long[] values = Arrays.copyOf(samples[i], counts[i] + other.counts[i]);
+                System.arraycopy(other.samples[i], 0, values, counts[i], other.counts[i]);
+                samples[i] = values;
+                counts[i] += other.counts[i];
+                errors[i] += other.errors[i];
+            }
+        }
+
+        void print(int seconds) {
+            long[] all = new long[0];
+            int totalErrors = 0;
+            System.out.printf("%-11s %10s %8s %9s %9s %9s %9s%n", "op", "requests", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Op op : Op.values()) {
+                int i = op.ordinal();
+                if (counts[i] == 0) {
+                    continue;
+                }
+                long[] values = Arrays.copyOf(samples[i], counts[i]);
+                printRow(op.name(), values, errors[i]);
+                long[] merged = Arrays.copyOf(all, all.length + values.length);
+                System.arraycopy(values, 0, merged, all.length, values.length);
+                all = merged;
+                totalErrors += errors[i];
+            }
+            printRow("ALL", all, totalErrors);
+            System.out.printf("Throughput: %.1f req/s%n", all.length / (double) seconds);
+        }
+
+        private static void printRow(String name, long[] values, int errorCount) {
+            Arrays.sort(values);
+            System.out.printf("%-11s %10d %8d %9.2f %9.2f %9.2f %9.2f%n", name, values.length, errorCount,
+                    millis(percentile(values, 0.50)), millis(percentile(values, 0.99)),
+                    millis(percentile(values, 0.999)), millis(values.length == 0 ? 0 : values[values.length - 1]));
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
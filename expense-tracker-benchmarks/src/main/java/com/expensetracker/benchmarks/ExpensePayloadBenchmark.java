@@ -0,0 +1,99 @@
+package com.expensetracker.benchmarks;
+
+import com.expensetracker.dto.ExpenseResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of encoding an expense list response in each negotiable format, with and without the
+ * gzip pass the server applies to large responses. Running the class directly prints payload sizes:
+ * <pre>
+ * java -cp benchmarks.jar com.expensetracker.benchmarks.ExpensePayloadBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpensePayloadBenchmark {
+    public enum Format {
+        JSON(Jackson2ObjectMapperBuilder.json()),
+        SMILE(Jackson2ObjectMapperBuilder.smile()),
+        CBOR(Jackson2ObjectMapperBuilder.cbor());
+
+        private final Jackson2ObjectMapperBuilder builder;
+
+        Format(Jackson2ObjectMapperBuilder builder) {
+            this.builder = builder;
+        }
+
+        // Dates as ISO strings, like Spring Boot's mapper
+        ObjectMapper mapper() {
+            return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        }
+    }
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param
+    public Format format;
+
+    private ObjectMapper objectMapper;
+    private List<ExpenseResponse> responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = format.mapper();
+        responses = BenchmarkData.responses(BenchmarkData.expenses(size));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(responses));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-6s %7s %12s %12s%n", "format", "size", "bytes", "gzip bytes");
+        for (int size : new int[]{1000, 10000}) {
+            List<ExpenseResponse> responses = BenchmarkData.responses(BenchmarkData.expenses(size));
+            for (Format format : Format.values()) {
+                byte[] bytes = format.mapper().writeValueAsBytes(responses);
+                System.out.printf("%-6s %7d %12d %12d%n", format, size, bytes.length, gzip(bytes).length);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.expensetracker.benchmarks;
+
+import com.expensetracker.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing one million expense amounts: {@code BigDecimal.add} per row (one allocation per addition)
+ * against {@link Money}'s minor units ({@code long} additions, overflow-checked). Run with
+ * {@code -prof gc} to see the allocation rate difference alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneySumBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    private BigDecimal[] decimals;
+    private long[] minorUnits;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimals = new BigDecimal[rows];
+        minorUnits = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            long cents = 100 + random.nextInt(100_000);
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+            minorUnits[i] = Money.toMinor(decimals[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money minorUnitSum() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Math.addExact(total, amount);
+        }
+        return Money.ofMinor(total);
+    }
+
+    /** Converting each BigDecimal at the boundary, as the import path does, then summing longs. */
+    @Benchmark
+    public Money convertThenSum() {
+        long total = 0;
+        for (BigDecimal amount : decimals) {
+            total = Math.addExact(total, Money.toMinor(amount));
+        }
+        return Money.ofMinor(total);
+    }
+}
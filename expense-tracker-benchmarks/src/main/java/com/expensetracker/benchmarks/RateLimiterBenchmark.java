@@ -0,0 +1,50 @@
+package com.expensetracker.benchmarks;
+
+import com.expensetracker.security.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link RateLimiter#tryAcquire} with several request threads, either all on one
+ * user's bucket (worst-case CAS contention) or spread over many users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+    private static final int USERS = 10_000;
+
+    private RateLimiter<Long> limiter;
+
+    @Setup
+    public void setUp() {
+        // High enough that every call takes a permit, so the benchmark always measures the CAS path
+        limiter = new RateLimiter<>(1e9, 1_000, 100_000);
+    }
+
+    @Benchmark
+    public long sameUser() {
+        return limiter.tryAcquire(42L);
+    }
+
+    @Benchmark
+    public long manyUsers() {
+        return limiter.tryAcquire((long) ThreadLocalRandom.current().nextInt(USERS));
+    }
+}